@@ -0,0 +1,135 @@
+package edu.jhu.ben.cs335.hw2.bench;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.jhu.ben.cs335.hw2.board.Board;
+import edu.jhu.ben.cs335.hw2.board.InvalidMoveException;
+import edu.jhu.ben.cs335.hw2.board.Move;
+import edu.jhu.ben.cs335.hw2.board.Moves;
+import edu.jhu.ben.cs335.hw2.board.Undo;
+
+/**
+ * Microbenchmarks of the Board primitives the players spend their time in,
+ * over the positions of PositionCorpus.
+ *
+ * Each invocation visits every position of one size and phase, so scores
+ * are per position. getLegalMoves caches its list on the board, so its
+ * benchmark first copies the position into a scratch board with copyFrom;
+ * the copyFrom benchmark measures that part alone.
+ *
+ * @author Zhihao Cao
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+	@Param({ "4", "6", "8" })
+	public int size;
+
+	@Param({ PositionCorpus.OPENING, PositionCorpus.MIDDLEGAME, PositionCorpus.ENDGAME })
+	public String phase;
+
+	private Board[] positions;
+	private Move[] firstMoves;
+	private int[] firstPackedMoves;
+	private Board scratch;
+	private int[] moves;
+	private Undo undo;
+
+	@Setup
+	public void setUp() {
+		this.positions = PositionCorpus.get(this.size, this.phase);
+		this.firstMoves = new Move[this.positions.length];
+		this.firstPackedMoves = new int[this.positions.length];
+		for (int i = 0; i < this.positions.length; i++) {
+			this.firstMoves[i] = new Board(this.positions[i]).getLegalMoves().get(0);
+			this.firstPackedMoves[i] = this.positions[i].pack(this.firstMoves[i]);
+		}
+		this.scratch = new Board(this.size);
+		this.moves = new int[Moves.MAX_MOVES];
+		this.undo = new Undo();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(PositionCorpus.GAMES)
+	public void getLegalMoves(Blackhole blackhole) {
+		for (Board position : this.positions) {
+			this.scratch.copyFrom(position);
+			ArrayList<Move> legalMoves = this.scratch.getLegalMoves();
+			blackhole.consume(legalMoves.size());
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(PositionCorpus.GAMES)
+	public void generateMoves(Blackhole blackhole) {
+		for (Board position : this.positions) {
+			blackhole.consume(position.generateMoves(this.moves, 0));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(PositionCorpus.GAMES)
+	public void countLegalMoves(Blackhole blackhole) {
+		for (Board position : this.positions) {
+			blackhole.consume(position.countLegalMoves());
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(PositionCorpus.GAMES)
+	public void copyConstructor(Blackhole blackhole) {
+		for (Board position : this.positions) {
+			blackhole.consume(new Board(position));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(PositionCorpus.GAMES)
+	public void copyFrom(Blackhole blackhole) {
+		for (Board position : this.positions) {
+			this.scratch.copyFrom(position);
+			blackhole.consume(this.scratch.getHash());
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(PositionCorpus.GAMES)
+	public void executeMove(Blackhole blackhole) throws InvalidMoveException {
+		for (int i = 0; i < this.positions.length; i++) {
+			this.scratch.copyFrom(this.positions[i]);
+			this.scratch.executeMove(this.firstMoves[i]);
+			blackhole.consume(this.scratch.getHash());
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(PositionCorpus.GAMES)
+	public void makeUnmakeMove(Blackhole blackhole) {
+		for (int i = 0; i < this.positions.length; i++) {
+			this.positions[i].makeMove(this.firstPackedMoves[i], this.undo);
+			blackhole.consume(this.positions[i].getHash());
+			this.positions[i].unmakeMove(this.undo);
+		}
+	}
+
+}
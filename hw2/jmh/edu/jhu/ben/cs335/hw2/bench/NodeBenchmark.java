@@ -0,0 +1,75 @@
+package edu.jhu.ben.cs335.hw2.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.jhu.ben.cs335.hw2.Node;
+import edu.jhu.ben.cs335.hw2.board.Board;
+import edu.jhu.ben.cs335.hw2.board.Chip;
+import edu.jhu.ben.cs335.hw2.board.Move;
+
+/**
+ * Microbenchmarks of the search tree Node: stepping to a successor with
+ * result, which copies the board, and the evaluation function, over the
+ * positions of PositionCorpus. Scores are per position.
+ *
+ * @author Zhihao Cao
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NodeBenchmark {
+
+	@Param({ "4", "6", "8" })
+	public int size;
+
+	@Param({ PositionCorpus.OPENING, PositionCorpus.MIDDLEGAME, PositionCorpus.ENDGAME })
+	public String phase;
+
+	private Node[] nodes;
+	private Move[] firstMoves;
+
+	@Setup
+	public void setUp() {
+		Board[] positions = PositionCorpus.get(this.size, this.phase);
+		this.nodes = new Node[positions.length];
+		this.firstMoves = new Move[positions.length];
+		for (int i = 0; i < positions.length; i++) {
+			this.nodes[i] = new Node(positions[i], null, 0);
+			this.firstMoves[i] = new Board(positions[i]).getLegalMoves().get(0);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(PositionCorpus.GAMES)
+	public void result(Blackhole blackhole) {
+		for (int i = 0; i < this.nodes.length; i++) {
+			blackhole.consume(this.nodes[i].result(this.firstMoves[i]));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(PositionCorpus.GAMES)
+	public void eval(Blackhole blackhole) {
+		for (Node node : this.nodes) {
+			blackhole.consume(node.eval(Chip.BLACK));
+		}
+	}
+
+}
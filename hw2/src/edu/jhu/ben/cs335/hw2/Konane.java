@@ -5,10 +5,16 @@ import java.util.Scanner;
 import edu.jhu.ben.cs335.hw2.board.Board;
 import edu.jhu.ben.cs335.hw2.board.Move;
 import edu.jhu.ben.cs335.hw2.board.Chip;
+import edu.jhu.ben.cs335.hw2.book.OpeningBook;
+import edu.jhu.ben.cs335.hw2.endgame.DecompositionSolver;
+import edu.jhu.ben.cs335.hw2.endgame.Tablebase;
 import edu.jhu.ben.cs335.hw2.players.MinimaxPlayer;
 import edu.jhu.ben.cs335.hw2.players.Player;
 import edu.jhu.ben.cs335.hw2.players.HumanPlayer;
 import edu.jhu.ben.cs335.hw2.players.AlphaBetaPlayer;
+import edu.jhu.ben.cs335.hw2.players.MonteCarloTreeSearchPlayer;
+import edu.jhu.ben.cs335.hw2.players.MtdfPlayer;
+import edu.jhu.ben.cs335.hw2.players.SearchPlayer;
 import edu.jhu.ben.cs335.hw2.players.TimeBoundedIterativeDeepeningAlphaBetaPlayer;
 import edu.jhu.ben.cs335.hw2.players.TimeBoundedIterativeDeepeningMiniMaxPlayer;
 
@@ -41,7 +47,7 @@ public class Konane {
 				else
 					System.out.print("White");
 
-				System.out.print(" (1=human, 2=minmax, 3=alphabeta): ");
+				System.out.print(" (1=human, 2=minmax, 3=alphabeta, 4=mcts): ");
 				int choice = stdin.nextInt();
 				
 				Chip player = i == 0 ? Chip.BLACK : Chip.WHITE;
@@ -63,8 +69,9 @@ public class Konane {
 					}
 					break;
 				case 3:
-					System.out.print("please input alphabeta type(1 = fixed depth bound, 2 = fixed time bound): ");
-					if (stdin.nextInt() == 1) {
+					System.out.print("please input alphabeta type(1 = fixed depth bound, 2 = fixed time bound, 3 = fixed time bound with MTD(f)): ");
+					int alphaBetaType = stdin.nextInt();
+					if (alphaBetaType == 1) {
 						System.out.print("Please input a maximum search depth: ");
 						int maxDepth = stdin.nextInt();
 						System.out.print("Please input move-ordering type (0 = naive move-ordering, 1 = heuristic move-ordering): ");
@@ -75,10 +82,18 @@ public class Konane {
 						int maxTime = stdin.nextInt();
 						System.out.print("Please input move-ordering type (0 = naive move-ordering, 1 = heuristic move-ordering): ");
 						boolean moveOrdering = stdin.nextInt() == 0 ? false : true;
-						players[i] = new TimeBoundedIterativeDeepeningAlphaBetaPlayer(player, maxTime, moveOrdering);
+						if (alphaBetaType == 3) {
+							players[i] = new MtdfPlayer(player, maxTime, moveOrdering);
+						} else {
+							players[i] = new TimeBoundedIterativeDeepeningAlphaBetaPlayer(player, maxTime, moveOrdering);
+						}
 						///
 					}
 					break;
+				case 4:
+					System.out.print("Please input a maximum time in seconds: ");
+					players[i] = new MonteCarloTreeSearchPlayer(player, stdin.nextInt());
+					break;
 	
 				default:
 					System.out.println("bad agent type given, please try again...");
@@ -86,24 +101,47 @@ public class Konane {
 				}
 			}
 
+			/* alpha-beta players play the opening from the book and the endgame from the
+			 * tablebase for this board size, if they were built, and solve endgames that
+			 * split into independent regions */
+			OpeningBook book = OpeningBook.open(boardSize);
+			if (book != null) {
+				System.out.println("Opening book: " + book.getCount() + " positions, build " + book.getBuild());
+			}
+			Tablebase tablebase = Tablebase.open(boardSize);
+			DecompositionSolver decomposition = new DecompositionSolver(boardSize);
+			for (Player p : players) {
+				if (p instanceof AlphaBetaPlayer || p instanceof TimeBoundedIterativeDeepeningAlphaBetaPlayer) {
+					((SearchPlayer) p).setOpeningBook(book);
+					((SearchPlayer) p).setTablebase(tablebase);
+					((SearchPlayer) p).setDecompositionSolver(decomposition);
+				}
+			}
+
 			System.out.println("\n===================");
 
-			/* take turns until gameover */
-			while ( game.gameWon() == Chip.NONE ) {  
-				System.out.print("Turn " + game.getTurn() + ", ");
-				if (game.getTurn()%2 == 0) {
-					System.out.println("black to play:");
-				} else {
-					System.out.println("white to play:");
-				}
+			/* take turns until gameover, then let the players release their threads */
+			try {
+				while ( game.gameWon() == Chip.NONE ) {  
+					System.out.print("Turn " + game.getTurn() + ", ");
+					if (game.getTurn()%2 == 0) {
+						System.out.println("black to play:");
+					} else {
+						System.out.println("white to play:");
+					}
 
-				System.out.println(game);
+					System.out.println(game);
 
-				Move m = players[game.getTurn()%players.length].getMove(game);
-				game.executeMove(m);
+					Move m = players[game.getTurn()%players.length].getMove(game);
+					game.executeMove(m);
 
-				System.out.println("This player has played: " + m.toString());
-				System.out.println();
+					System.out.println("This player has played: " + m.toString());
+					System.out.println();
+				}
+			} finally {
+				for (Player p : players) {
+					p.shutdown();
+				}
 			}
 
 			System.out.println("Game over!  Final board state:\n" + game);
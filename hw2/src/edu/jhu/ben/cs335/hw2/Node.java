@@ -1,11 +1,11 @@
 package edu.jhu.ben.cs335.hw2;
 
-import java.util.ArrayList;
-
 import edu.jhu.ben.cs335.hw2.board.Board;
 import edu.jhu.ben.cs335.hw2.board.Chip;
 import edu.jhu.ben.cs335.hw2.board.InvalidMoveException;
 import edu.jhu.ben.cs335.hw2.board.Move;
+import edu.jhu.ben.cs335.hw2.board.Moves;
+import edu.jhu.ben.cs335.hw2.board.Undo;
 
 /**
  * This class represents a node in the Minimax search tree.
@@ -18,6 +18,8 @@ public class Node {
 	private Board game;
 	private Move bestMove;
 	private int depth;
+	private int[] evalMoves;
+	private Undo evalUndo;
 
 	/**
 	 * Get the best move of this node
@@ -104,6 +106,50 @@ public class Node {
 
 	}
 
+	/**
+	 * Descend to a successor of this node in place: play the move on this
+	 * node's gameboard instead of copying it, as result() does
+	 * 
+	 * @param move	a legal move in the gameboard
+	 * @param undo	record of the move, to pass to unmakeMove
+	 */
+	public void makeMove(Move move, Undo undo) {
+		this.game.makeMove(move, undo);
+		this.depth++;
+	}
+
+	/**
+	 * Descend to a successor of this node in place, given a packed move
+	 * 
+	 * @param move	a legal move in the gameboard, packed as by Moves.pack
+	 * @param undo	record of the move, to pass to unmakeMove
+	 */
+	public void makeMove(int move, Undo undo) {
+		this.game.makeMove(move, undo);
+		this.depth++;
+	}
+
+	/**
+	 * Descend in place to the state where the player to move has passed, for
+	 * null-move pruning; passing is not a legal move of the game
+	 * 
+	 * @param undo	record of the pass, to pass to unmakeMove
+	 */
+	public void makeNullMove(Undo undo) {
+		this.game.makeNullMove(undo);
+		this.depth++;
+	}
+
+	/**
+	 * Return to the parent of this node by taking back a move played by makeMove
+	 * 
+	 * @param undo	record filled in by makeMove
+	 */
+	public void unmakeMove(Undo undo) {
+		this.game.unmakeMove(undo);
+		this.depth--;
+	}
+
 	/**
 	 * Subfunction of Minimax algorithm; Calculate an estimate of the expected utility of the game
 	 * by the evaluation function
@@ -114,40 +160,37 @@ public class Node {
 	public int eval(Chip player) {
 
 		int value = 0;
+		int moves = this.game.countLegalMoves();
 		int minChoice = Integer.MAX_VALUE / 2;
-		ArrayList<Move> legalMoves = this.game.getLegalMoves();
-		int friendNum = 0;
-		int enemyNum = 0;
-
-		if (game.gameWon() == Chip.NONE) {
-
-			for (int i = 0; i < this.game.getSize(); i++) {
-				for (int j = 0; j < this.game.getSize(); j++) {
-					if (this.game.getTile(i, j).getChip() == player)
-						friendNum++;
-					else if (this.game.getTile(i, j).getChip() != Chip.NONE)
-						enemyNum++;
-				}
-			}
+		boolean playerToMove = (player == Chip.BLACK) == this.game.isBlackToPlay();
 
-			for (Move move : legalMoves) {
-				int choice = this.result(move).getGame().getLegalMoves().size();
-				if (minChoice > choice) {
-					minChoice = choice;
-				}
-			}
-			value = legalMoves.size() - 2 * minChoice + friendNum - enemyNum;
+		if (moves == 0) {
+			/* the player to move has lost */
+			return playerToMove ? Integer.MIN_VALUE / 2 : Integer.MAX_VALUE / 2;
+		}
 
-		} else if (game.gameWon() == player) {
-			value = Integer.MAX_VALUE / 2;
-		} else {
-			value = Integer.MIN_VALUE / 2;
+		int friendNum = this.game.countChips(player);
+		int enemyNum = this.game.countChips(player == Chip.BLACK ? Chip.WHITE : Chip.BLACK);
+
+		/* buffers are kept for the next evaluation, so evaluating allocates nothing */
+		if (this.evalMoves == null) {
+			this.evalMoves = new int[Moves.MAX_MOVES];
+			this.evalUndo = new Undo();
+		}
+		this.game.generateMoves(this.evalMoves, 0);
+		for (int i = 0; i < moves; i++) {
+			this.game.makeMove(this.evalMoves[i], this.evalUndo);
+			int choice = this.game.countLegalMoves();
+			this.game.unmakeMove(this.evalUndo);
+			if (minChoice > choice) {
+				minChoice = choice;
+			}
 		}
 
-		if (player == Chip.BLACK && !this.game.isBlackToPlay() || player == Chip.WHITE && this.game.isBlackToPlay() ) {
-			if (game.gameWon() == Chip.NONE)
-				value = 2 * legalMoves.size() - minChoice + friendNum - enemyNum;
-			value = - value;
+		if (playerToMove) {
+			value = moves - 2 * minChoice + friendNum - enemyNum;
+		} else {
+			value = - (2 * moves - minChoice + friendNum - enemyNum);
 		}
 
 		return value;
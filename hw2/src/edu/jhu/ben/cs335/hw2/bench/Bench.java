@@ -0,0 +1,219 @@
+package edu.jhu.ben.cs335.hw2.bench;
+
+import edu.jhu.ben.cs335.hw2.board.Board;
+import edu.jhu.ben.cs335.hw2.board.Chip;
+import edu.jhu.ben.cs335.hw2.search.AlphaBetaSearch;
+import edu.jhu.ben.cs335.hw2.search.TranspositionTable;
+
+/**
+ * End-to-end search benchmark: a fixed-depth alpha-beta search, as
+ * AlphaBetaPlayer plays it, of every position in PositionCorpus.
+ *
+ * Every search starts from an empty transposition table and runs on one
+ * thread, so the number of nodes searched depends only on the search
+ * itself. It prints the nodes searched and the nodes per second, and a
+ * signature made from the node count, score and best move of every
+ * position: a change to the search or to move ordering that was meant to
+ * keep it the same shows up as a new signature, while the nodes per second
+ * track how fast the build is. With -iterate every position is searched by
+ * iterative deepening up to the depth, as the timed players search, and
+ * with -mtdf each depth is searched with MTD(f), to compare the nodes it
+ * needs with those of the usual search; -lmr and -nullmove turn on
+ * late-move reductions and verified null-move pruning.
+ * Usage: Bench [extra depth] [-iterate] [-mtdf] [-lmr] [-nullmove]
+ *
+ * @author Zhihao Cao
+ */
+public class Bench {
+
+	/**
+	 * depth every position of a board size is searched to, for sizes 4, 6 and 8
+	 */
+	private static final int[] DEPTHS = { 16, 10, 9 };
+
+	/**
+	 * memory budget of the transposition table, in megabytes; node counts
+	 * depend on it
+	 */
+	private static final int TABLE_MEGABYTES = 16;
+
+	private int extraDepth;
+	private boolean iterative;
+	private boolean mtdf;
+	private boolean lateMoveReductions;
+	private boolean nullMovePruning;
+	private long nodes;
+	private long nanos;
+	private long signature;
+
+	/**
+	 * Create a Bench
+	 *
+	 * @param extraDepth	plies to search beyond the usual depths; signatures
+	 * 						only match between runs with the same extra depth
+	 */
+	public Bench(int extraDepth) {
+		this.extraDepth = extraDepth;
+		this.iterative = false;
+		this.mtdf = false;
+		this.lateMoveReductions = false;
+		this.nullMovePruning = false;
+	}
+
+	/**
+	 * Set whether to search by iterative deepening up to the depth of each
+	 * position; signatures only match between runs that both do or both do not
+	 *
+	 * @param iterative	whether to search by iterative deepening
+	 */
+	public void setIterative(boolean iterative) {
+		this.iterative = iterative;
+	}
+
+	/**
+	 * Set whether to search with MTD(f); signatures only match between runs
+	 * that both use it or both do not
+	 *
+	 * @param mtdf	whether to search with MTD(f)
+	 */
+	public void setMtdf(boolean mtdf) {
+		this.mtdf = mtdf;
+	}
+
+	/**
+	 * Set whether to search with late-move reductions; signatures only match
+	 * between runs that both use them or both do not
+	 *
+	 * @param lateMoveReductions	whether to reduce late moves
+	 */
+	public void setLateMoveReductions(boolean lateMoveReductions) {
+		this.lateMoveReductions = lateMoveReductions;
+	}
+
+	/**
+	 * Set whether to search with verified null-move pruning; signatures only
+	 * match between runs that both use it or both do not
+	 *
+	 * @param nullMovePruning	whether to prune with null moves
+	 */
+	public void setNullMovePruning(boolean nullMovePruning) {
+		this.nullMovePruning = nullMovePruning;
+	}
+
+	/**
+	 * Search every position, printing a line about each one
+	 */
+	public void run() {
+		TranspositionTable table = new TranspositionTable(TABLE_MEGABYTES);
+		this.nodes = 0;
+		this.nanos = 0;
+		this.signature = 0;
+
+		for (int i = 0; i < PositionCorpus.SIZES.length; i++) {
+			int size = PositionCorpus.SIZES[i];
+			int depth = DEPTHS[i] + this.extraDepth;
+			for (String phase : PositionCorpus.PHASES) {
+				Board[] positions = PositionCorpus.get(size, phase);
+				for (int j = 0; j < positions.length; j++) {
+					Board position = positions[j];
+					Chip player = position.isBlackToPlay() ? Chip.BLACK : Chip.WHITE;
+					table.clear();
+					AlphaBetaSearch search = new AlphaBetaSearch(player, true, table);
+					search.setMtdf(this.mtdf);
+					search.setLateMoveReductions(this.lateMoveReductions);
+					search.setNullMovePruning(this.nullMovePruning);
+
+					long startTime = System.nanoTime();
+					int score;
+					if (this.iterative) {
+						search.iterate(position, 1, depth);
+						score = search.getScore();
+					} else {
+						score = search.search(position, depth);
+					}
+					this.nanos += System.nanoTime() - startTime;
+
+					long positionNodes = search.getNodesExplored();
+					int move = search.getBestMove() == null ? 0 : position.pack(search.getBestMove());
+					this.nodes += positionNodes;
+					this.signature = mix(mix(mix(this.signature, positionNodes), score), move);
+					System.out.println(size + "x" + size + " " + phase + " " + (j + 1) + ", depth " + depth
+							+ ": nodes " + positionNodes + ", score " + score + ", move " + search.getBestMove());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get the number of nodes the last run searched
+	 *
+	 * @return	the number of nodes
+	 */
+	public long getNodes() {
+		return this.nodes;
+	}
+
+	/**
+	 * Get the nodes per second of the last run, counting only time spent searching
+	 *
+	 * @return	the nodes per second
+	 */
+	public long getNodesPerSecond() {
+		return this.nanos == 0 ? 0 : (long) (this.nodes * 1e9 / this.nanos);
+	}
+
+	/**
+	 * Get the signature of the last run
+	 *
+	 * @return	the signature
+	 */
+	public long getSignature() {
+		return this.signature;
+	}
+
+	/**
+	 * Subfunction of run: fold a value into the signature
+	 *
+	 * @param signature	the signature so far
+	 * @param value		the value
+	 * @return			the new signature
+	 */
+	private static long mix(long signature, long value) {
+		long h = (signature ^ value) * 0x9E3779B97F4A7C15L;
+		return h ^ (h >>> 29);
+	}
+
+	public static void main(String[] args) {
+		int extraDepth = 0;
+		boolean iterative = false;
+		boolean mtdf = false;
+		boolean lateMoveReductions = false;
+		boolean nullMovePruning = false;
+		for (String arg : args) {
+			if (arg.equals("-iterate") || arg.equals("-mtdf") || arg.equals("-lmr") || arg.equals("-nullmove")) {
+				iterative |= arg.equals("-iterate");
+				mtdf |= arg.equals("-mtdf");
+				lateMoveReductions |= arg.equals("-lmr");
+				nullMovePruning |= arg.equals("-nullmove");
+				continue;
+			}
+			try {
+				extraDepth = Integer.parseInt(arg);
+			} catch (NumberFormatException e) {
+				System.err.println("usage: Bench [extra depth] [-iterate] [-mtdf] [-lmr] [-nullmove]");
+				System.exit(1);
+			}
+		}
+
+		Bench bench = new Bench(extraDepth);
+		bench.setIterative(iterative);
+		bench.setMtdf(mtdf);
+		bench.setLateMoveReductions(lateMoveReductions);
+		bench.setNullMovePruning(nullMovePruning);
+		bench.run();
+		System.out.println("Nodes searched: " + bench.getNodes());
+		System.out.println("Nodes/second: " + bench.getNodesPerSecond());
+		System.out.println("Signature: " + String.format("%016x", bench.getSignature()));
+	}
+
+}
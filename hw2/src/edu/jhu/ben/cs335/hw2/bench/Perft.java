@@ -0,0 +1,282 @@
+package edu.jhu.ben.cs335.hw2.bench;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import edu.jhu.ben.cs335.hw2.board.Board;
+import edu.jhu.ben.cs335.hw2.board.InvalidMoveException;
+import edu.jhu.ben.cs335.hw2.board.Move;
+import edu.jhu.ben.cs335.hw2.search.MoveStack;
+
+/**
+ * Move generator test and benchmark: counts the positions reached after
+ * exactly a given number of moves from the start of the game (perft).
+ *
+ * Counting plays packed moves with makeMove and unmakeMove, and only counts
+ * the moves at the last ply rather than playing them. The counts are the
+ * same on every run, so they check the move generator: its three cases
+ * (the first two removals and the jumps) are all covered from depth 3 on.
+ * In divide mode the count is broken down by the first move, to find the
+ * line a wrong count comes from; in parallel mode each first move is
+ * counted as its own fork-join task.
+ *
+ * Every count is compared with the reference counts of the original
+ * scaffolding Board, where they are known, and a difference fails the run.
+ * getLegalMoves is built on the same generator, so check mode, which also
+ * counts through getLegalMoves and executeMove on copies of the board, only
+ * checks executeMove and the packing of moves, not the generator itself.
+ * Usage: Perft size depth [-divide] [-parallel [threads]] [-check]
+ *
+ * @author Zhihao Cao
+ */
+public class Perft {
+
+	/**
+	 * counts of the original scaffolding Board from the start of the game,
+	 * for sizes 4, 6 and 8, indexed by depth; the 4x4 game is over after 15 moves
+	 */
+	private static final int[] REFERENCE_SIZES = { 4, 6, 8 };
+	private static final long[][] REFERENCE_COUNTS = {
+		{ 1L, 4L, 12L, 16L, 52L, 120L, 376L, 972L, 2808L, 6124L, 13040L, 20356L, 24172L, 17244L, 8652L, 1248L, 0L },
+		{ 1L, 4L, 12L, 28L, 156L, 668L, 4192L, 22676L, 162288L, 1030412L, 7922304L, 55065776L, 432028088L },
+		{ 1L, 4L, 12L, 28L, 172L, 892L, 7124L, 52044L, 508088L, 4633660L, 51883544L, 552955020L },
+	};
+
+	private MoveStack stack;
+
+	/**
+	 * Create a Perft; it belongs to one thread
+	 */
+	public Perft() {
+		this.stack = new MoveStack();
+	}
+
+	/**
+	 * Count the positions a given number of moves ahead
+	 *
+	 * @param game	the position to count from; put back as it was
+	 * @param depth	number of moves ahead
+	 * @return		the number of positions, counted once for every line reaching them
+	 */
+	public long count(Board game, int depth) {
+		return this.count(game, depth, 0);
+	}
+
+	/**
+	 * Subfunction of count
+	 *
+	 * @param game	the position to count from
+	 * @param depth	number of moves ahead
+	 * @param ply	distance from the position count started at
+	 * @return		the number of positions
+	 */
+	private long count(Board game, int depth, int ply) {
+		if (depth == 0) {
+			return 1;
+		}
+		int count = this.stack.generate(game, ply);
+		if (depth == 1) {
+			return count;
+		}
+
+		int[] moves = this.stack.getMoves();
+		int offset = this.stack.offset(ply);
+		long positions = 0;
+		for (int i = 0; i < count; i++) {
+			game.makeMove(moves[offset + i], this.stack.undo(ply));
+			positions += this.count(game, depth - 1, ply + 1);
+			game.unmakeMove(this.stack.undo(ply));
+		}
+		return positions;
+	}
+
+	/**
+	 * Count the positions a given number of moves ahead through the Move
+	 * interface the players use: getLegalMoves, and executeMove on a copy
+	 * of the board for every move. Much slower than count, and independent
+	 * of makeMove and unmakeMove.
+	 *
+	 * @param game	the position to count from; not modified
+	 * @param depth	number of moves ahead
+	 * @return		the number of positions
+	 * @throws InvalidMoveException	if executeMove rejects a move getLegalMoves offered
+	 */
+	public static long countLegal(Board game, int depth) throws InvalidMoveException {
+		if (depth == 0) {
+			return 1;
+		}
+		ArrayList<Move> moveList = game.getLegalMoves();
+		if (depth == 1) {
+			return moveList.size();
+		}
+
+		long positions = 0;
+		for (Move move : moveList) {
+			Board next = new Board(game);
+			next.executeMove(move);
+			positions += countLegal(next, depth - 1);
+		}
+		return positions;
+	}
+
+	/**
+	 * Count the positions a given number of moves ahead of each legal move
+	 *
+	 * @param game	the position to count from; not modified
+	 * @param depth	number of moves ahead, at least 1
+	 * @param pool	pool to count each first move on as its own task, or null
+	 * 				to count them one by one on this thread
+	 * @return		the count under each move, in the order of getLegalMoves()
+	 */
+	public static long[] divide(Board game, int depth, ForkJoinPool pool) {
+		ArrayList<Move> moveList = new Board(game).getLegalMoves();
+		long[] counts = new long[moveList.size()];
+		ArrayList<RootMoveTask> tasks = new ArrayList<RootMoveTask>();
+		Perft perft = new Perft();
+		for (int i = 0; i < counts.length; i++) {
+			Board next = new Board(game);
+			next.makeMove(moveList.get(i), perft.stack.undo(0));
+			if (pool == null) {
+				counts[i] = perft.count(next, depth - 1);
+			} else {
+				tasks.add(new RootMoveTask(next, depth - 1));
+			}
+		}
+
+		if (pool != null) {
+			for (RootMoveTask task : tasks) {
+				pool.execute(task);
+			}
+			for (int i = 0; i < counts.length; i++) {
+				counts[i] = tasks.get(i).join();
+			}
+		}
+		return counts;
+	}
+
+	/**
+	 * Get the reference count from the start of the game
+	 *
+	 * @param size	board size
+	 * @param depth	number of moves ahead
+	 * @return		the count of the original Board, or -1 if it is not known
+	 */
+	public static long referenceCount(int size, int depth) {
+		for (int i = 0; i < REFERENCE_SIZES.length; i++) {
+			if (REFERENCE_SIZES[i] == size) {
+				if (depth < REFERENCE_COUNTS[i].length) {
+					return REFERENCE_COUNTS[i][depth];
+				}
+				/* the game is over before the last depth with a count of 0 */
+				return REFERENCE_COUNTS[i][REFERENCE_COUNTS[i].length - 1] == 0 ? 0 : -1;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Count positions under one first move, as a fork-join task with its own
+	 * board and move stack
+	 */
+	private static class RootMoveTask extends RecursiveTask<Long> {
+
+		private static final long serialVersionUID = 1L;
+
+		private Board game;
+		private int depth;
+
+		/**
+		 * Create a RootMoveTask
+		 *
+		 * @param game	the position after the first move; the task owns it
+		 * @param depth	number of moves ahead of it to count
+		 */
+		RootMoveTask(Board game, int depth) {
+			this.game = game;
+			this.depth = depth;
+		}
+
+		@Override
+		protected Long compute() {
+			return new Perft().count(this.game, this.depth);
+		}
+
+	}
+
+	public static void main(String[] args) {
+		int size = 0;
+		int depth = 0;
+		boolean divide = false;
+		boolean check = false;
+		int threads = 0;
+		try {
+			size = Integer.parseInt(args[0]);
+			depth = Integer.parseInt(args[1]);
+			for (int i = 2; i < args.length; i++) {
+				if (args[i].equals("-divide")) {
+					divide = true;
+				} else if (args[i].equals("-check")) {
+					check = true;
+				} else if (args[i].equals("-parallel")) {
+					threads = Runtime.getRuntime().availableProcessors();
+					if (i + 1 < args.length && !args[i + 1].startsWith("-")) {
+						threads = Integer.parseInt(args[++i]);
+					}
+				} else {
+					throw new IllegalArgumentException(args[i]);
+				}
+			}
+			if (depth < 1) {
+				throw new IllegalArgumentException("depth " + depth);
+			}
+			new Board(size);
+		} catch (RuntimeException e) {
+			System.err.println("usage: Perft size depth [-divide] [-parallel [threads]] [-check]");
+			System.exit(1);
+		}
+
+		Board game = new Board(size);
+		ForkJoinPool pool = threads > 0 ? new ForkJoinPool(threads) : null;
+		try {
+			/* every depth up to the one asked for, or only that one when dividing */
+			for (int d = divide ? depth : 1; d <= depth; d++) {
+				long startTime = System.nanoTime();
+				long[] counts = divide(game, d, pool);
+				double seconds = (System.nanoTime() - startTime) / 1e9;
+
+				long positions = 0;
+				ArrayList<Move> moveList = game.getLegalMoves();
+				for (int i = 0; i < counts.length; i++) {
+					positions += counts[i];
+					if (divide) {
+						System.out.println(moveList.get(i) + ": " + counts[i]);
+					}
+				}
+				System.out.println("Depth " + d + ": " + positions + " positions in " + seconds + "s ("
+						+ (long) (positions / Math.max(seconds, 1e-9)) + " positions/second)");
+
+				long reference = referenceCount(size, d);
+				if (reference >= 0 && reference != positions) {
+					System.out.println("Mismatch: reference count " + reference);
+					System.exit(1);
+				}
+				if (check) {
+					long legal = countLegal(game, d);
+					if (legal != positions) {
+						System.out.println("Mismatch: getLegalMoves and executeMove count " + legal);
+						System.exit(1);
+					}
+				}
+			}
+		} catch (InvalidMoveException e) {
+			System.out.println("Mismatch: " + e.getMessage());
+			System.exit(1);
+		} finally {
+			if (pool != null) {
+				pool.shutdown();
+			}
+		}
+	}
+
+}
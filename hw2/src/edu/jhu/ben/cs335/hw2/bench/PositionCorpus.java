@@ -0,0 +1,127 @@
+package edu.jhu.ben.cs335.hw2.bench;
+
+import java.util.Random;
+
+import edu.jhu.ben.cs335.hw2.board.Board;
+import edu.jhu.ben.cs335.hw2.board.Moves;
+import edu.jhu.ben.cs335.hw2.board.Undo;
+
+/**
+ * Fixed positions to measure the engine on, for every board size and for
+ * three phases of the game.
+ *
+ * The positions come from random games played from a fixed seed, so they
+ * are the same on every run and every machine: for each game, the opening
+ * position is taken a few moves after the two removals, the middlegame
+ * position halfway through the game and the endgame position a few moves
+ * before its end. No position is over, so every one has a move to play.
+ *
+ * @author Zhihao Cao
+ */
+public final class PositionCorpus {
+
+	/**
+	 * board sizes the corpus covers
+	 */
+	public static final int[] SIZES = { 4, 6, 8 };
+
+	/**
+	 * phases of the game the corpus covers
+	 */
+	public static final String OPENING = "opening";
+	public static final String MIDDLEGAME = "middlegame";
+	public static final String ENDGAME = "endgame";
+	public static final String[] PHASES = { OPENING, MIDDLEGAME, ENDGAME };
+
+	/**
+	 * positions in every phase, for every size: one from each game
+	 */
+	public static final int GAMES = 8;
+
+	/**
+	 * moves before the end of a game its endgame position is taken at
+	 */
+	private static final int ENDGAME_MOVES_LEFT = 3;
+
+	private static final long SEED = 435;
+
+	private PositionCorpus() {
+	}
+
+	/**
+	 * Get the positions of one phase of the game on one board size
+	 *
+	 * @param size	the board size
+	 * @param phase	OPENING, MIDDLEGAME or ENDGAME
+	 * @return		GAMES new boards, which the caller may change
+	 * @throws IllegalArgumentException	if the size or phase is unknown
+	 */
+	public static Board[] get(int size, String phase) throws IllegalArgumentException {
+		int phaseIndex = -1;
+		for (int i = 0; i < PHASES.length; i++) {
+			if (PHASES[i].equals(phase)) {
+				phaseIndex = i;
+			}
+		}
+		if (phaseIndex < 0) {
+			throw new IllegalArgumentException("unknown phase \"" + phase + "\"");
+		}
+
+		Board[] positions = new Board[GAMES];
+		for (int game = 0; game < GAMES; game++) {
+			positions[game] = play(size, game)[phaseIndex];
+		}
+		return positions;
+	}
+
+	/**
+	 * Get every position on one board size, opening positions first
+	 *
+	 * @param size	the board size
+	 * @return		3 * GAMES new boards, which the caller may change
+	 * @throws IllegalArgumentException	if the size is unknown
+	 */
+	public static Board[] get(int size) throws IllegalArgumentException {
+		Board[] positions = new Board[PHASES.length * GAMES];
+		for (int i = 0; i < PHASES.length; i++) {
+			System.arraycopy(get(size, PHASES[i]), 0, positions, i * GAMES, GAMES);
+		}
+		return positions;
+	}
+
+	/**
+	 * Subfunction of get: play one random game to its end and pick out its
+	 * opening, middlegame and endgame positions
+	 *
+	 * @param size	the board size
+	 * @param game	number of the game, which seeds it
+	 * @return		the three positions
+	 */
+	private static Board[] play(int size, int game) {
+		Random random = new Random(SEED * 1000003 + size * 1009 + game);
+		Board board = new Board(size);
+		int[] moves = new int[Moves.MAX_MOVES];
+		int[] line = new int[Moves.MAX_PLY];
+		Undo undo = new Undo();
+
+		int length = 0;
+		int count;
+		while ((count = board.generateMoves(moves, 0)) > 0) {
+			line[length] = moves[random.nextInt(count)];
+			board.makeMove(line[length++], undo);
+		}
+
+		int[] plies = { 2 + length / 8, length / 2, length - ENDGAME_MOVES_LEFT };
+		Board[] positions = new Board[plies.length];
+		for (int i = 0; i < plies.length; i++) {
+			/* tiny games may end too soon for the usual plies; never take the final position */
+			int ply = Math.max(2, Math.min(plies[i], length - 1));
+			positions[i] = new Board(size);
+			for (int j = 0; j < ply; j++) {
+				positions[i].makeMove(line[j], undo);
+			}
+		}
+		return positions;
+	}
+
+}
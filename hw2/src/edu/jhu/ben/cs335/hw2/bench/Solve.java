@@ -0,0 +1,90 @@
+package edu.jhu.ben.cs335.hw2.bench;
+
+import edu.jhu.ben.cs335.hw2.board.Board;
+import edu.jhu.ben.cs335.hw2.endgame.DecompositionSolver;
+import edu.jhu.ben.cs335.hw2.endgame.Tablebase;
+import edu.jhu.ben.cs335.hw2.search.ProofNumberSearch;
+
+/**
+ * Solves every position in PositionCorpus of one board size with
+ * ProofNumberSearch, each within a time and node budget, and prints whether
+ * the player to move wins, the winning move, and the nodes and time it took.
+ * The tablebase and the decomposition solver end the search early wherever
+ * they can, as they do for the alpha-beta players.
+ * Usage: Solve size [seconds [nodes [megabytes]]]
+ *
+ * @author Zhihao Cao
+ */
+public class Solve {
+
+	/**
+	 * default time budget per position, in seconds
+	 */
+	private static final double DEFAULT_SECONDS = 10;
+
+	/**
+	 * default memory budget of the table, in megabytes
+	 */
+	private static final int DEFAULT_MEGABYTES = 64;
+
+	public static void main(String[] args) {
+		int size = 0;
+		double seconds = DEFAULT_SECONDS;
+		long maxNodes = 0;
+		int megabytes = DEFAULT_MEGABYTES;
+		try {
+			size = Integer.parseInt(args[0]);
+			if (args.length > 1) {
+				seconds = Double.parseDouble(args[1]);
+			}
+			if (args.length > 2) {
+				maxNodes = Long.parseLong(args[2]);
+			}
+			if (args.length > 3) {
+				megabytes = Integer.parseInt(args[3]);
+			}
+			new Board(size);
+		} catch (RuntimeException e) {
+			System.err.println("usage: Solve size [seconds [nodes [megabytes]]]");
+			System.exit(1);
+		}
+
+		ProofNumberSearch search = new ProofNumberSearch(megabytes);
+		search.setTablebase(Tablebase.open(size));
+		search.setDecompositionSolver(new DecompositionSolver(size));
+		int solved = 0;
+		int total = 0;
+		long nodes = 0;
+		long nanos = 0;
+		for (String phase : PositionCorpus.PHASES) {
+			Board[] positions = PositionCorpus.get(size, phase);
+			for (int j = 0; j < positions.length; j++) {
+				/* every position on its own, so that the counts do not depend on the order */
+				search.clear();
+				long startTime = System.nanoTime();
+				int result = search.solve(positions[j], seconds, maxNodes);
+				long positionNanos = System.nanoTime() - startTime;
+
+				String outcome = "unknown";
+				if (result == ProofNumberSearch.WIN) {
+					outcome = "win by " + search.getBestMove();
+				} else if (result == ProofNumberSearch.LOSS) {
+					outcome = "loss";
+				}
+				if (result != ProofNumberSearch.UNKNOWN) {
+					solved++;
+				}
+				total++;
+				nodes += search.getNodes();
+				nanos += positionNanos;
+				System.out.println(size + "x" + size + " " + phase + " " + (j + 1) + ", " + (positions[j].isBlackToPlay() ? "black" : "white")
+						+ " to play: " + outcome + ", nodes " + search.getNodes()
+						+ ", time " + String.format("%.3f", positionNanos / 1e9) + "s");
+			}
+		}
+		System.out.println("Solved: " + solved + " of " + total);
+		System.out.println("Nodes searched: " + nodes);
+		System.out.println("Nodes/second: " + (nanos == 0 ? 0 : (long) (nodes * 1e9 / nanos)));
+	}
+
+}
@@ -7,9 +7,13 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Random;
 
 /**
  * This class represents a gameboard for the game of Konane
+ *
+ * The position is stored as two bitboards, one per color; square (row, col)
+ * is bit (row*width)+col, so every legal board size fits in a single long.
  * @author Ben Mitchell
  */
 public class Board {
@@ -19,9 +23,98 @@ public class Board {
 	private static final int MAX_WIDTH = 8;
 
 	/**
-	 * actual board tiles; row-major mapping to 2D array
+	 * jump directions, in the order north, west, east, south
 	 */
-	private Tile[] data;
+	private static final int NORTH = 0;
+	private static final int WEST = 1;
+	private static final int EAST = 2;
+	private static final int SOUTH = 3;
+	private static final int DIRECTIONS = 4;
+	
+	/** 
+	 * for each board width and direction, the squares a chip can jump from
+	 * without landing off the board; also keeps shifts from wrapping rows
+	 */
+	private static final long[][] JUMP_SOURCES = new long[MAX_WIDTH + 1][DIRECTIONS];
+	
+	/** 
+	 * for each board width, the bits that correspond to squares on the board
+	 */
+	private static final long[] SQUARES = new long[MAX_WIDTH + 1];
+	
+	/** 
+	 * for each board width, every move indexed by (from*width*width)+to; moves
+	 * are immutable, so the generator hands out these instead of allocating
+	 */
+	private static final Move[][] MOVES = new Move[MAX_WIDTH + 1][];
+	
+	/**
+	 * for each board width, the chips removed by each move, indexed like MOVES:
+	 * every other square between from and to, or the square itself for a removal
+	 */
+	private static final long[][] CAPTURES = new long[MAX_WIDTH + 1][];
+	
+	/**
+	 * Zobrist keys: one random number per chip color and square, plus one for
+	 * white to move; fixed seed so that keys are the same from run to run
+	 */
+	private static final long[] BLACK_KEYS = new long[Long.SIZE];
+	private static final long[] WHITE_KEYS = new long[Long.SIZE];
+	private static final long WHITE_TO_PLAY_KEY;
+	
+	static {
+		Random random = new Random(0x4b6f6e616e65L);
+		for (int sq = 0; sq < Long.SIZE; sq++) {
+			BLACK_KEYS[sq] = random.nextLong();
+			WHITE_KEYS[sq] = random.nextLong();
+		}
+		WHITE_TO_PLAY_KEY = random.nextLong();
+
+		for (int w = MIN_WIDTH; w <= MAX_WIDTH; w += 2) {
+			SQUARES[w] = w * w == Long.SIZE ? -1L : (1L << (w * w)) - 1;
+			MOVES[w] = new Move[w * w * w * w];
+			CAPTURES[w] = new long[w * w * w * w];
+			for (int from = 0; from < w * w; from++) {
+				for (int to = 0; to < w * w; to++) {
+					if (from / w == to / w || from % w == to % w) {
+						MOVES[w][(from * w * w) + to] = new Move(from / w, from % w, to / w, to % w);
+						if (from == to) {
+							CAPTURES[w][(from * w * w) + to] = 1L << from;
+						} else {
+							int step = from / w == to / w ? Integer.signum(to - from) : w * Integer.signum(to - from);
+							for (int i = 1; i < (to - from) / step; i += 2) {
+								CAPTURES[w][(from * w * w) + to] |= 1L << (from + (i * step));
+							}
+						}
+					}
+				}
+			}
+			for (int row = 0; row < w; row++) {
+				for (int col = 0; col < w; col++) {
+					long bit = 1L << (row * w + col);
+					if (row >= 2)
+						JUMP_SOURCES[w][NORTH] |= bit;
+					if (col >= 2)
+						JUMP_SOURCES[w][WEST] |= bit;
+					if (col < w - 2)
+						JUMP_SOURCES[w][EAST] |= bit;
+					if (row < w - 2)
+						JUMP_SOURCES[w][SOUTH] |= bit;
+				}
+			}
+		}
+	}
+	
+	/** 
+	 * black and white chips; row-major mapping of squares to bits
+	 */
+	private long black;
+	private long white;
+
+	/**
+	 * Zobrist key of the position; kept up to date as chips and turns change
+	 */
+	private long hash;
 
 
 	/**
@@ -49,6 +142,11 @@ public class Board {
 	 */
 	private boolean moveListStale;
 
+	/**
+	 * packed moves getLegalMoves builds the moveList from; allocated when first needed
+	 */
+	private int[] moveBuffer;
+
 	/**
 	 * Create a new game board.
 	 *
@@ -66,7 +164,6 @@ public class Board {
 		this.width = size;
 
 		// allocate data
-		data = new Tile[width*width];
 		blackToPlay = true;
 		moveList = new ArrayList<Move>();
 		moveListStale = true;
@@ -75,9 +172,9 @@ public class Board {
 		for (int i=0; i<width; i++) {
 			for (int j=0; j<width; j++) {
 				if ( (i + j) % 2 == 0 ) {  // alternating color tileing
-					this.putTile(i, j, new Tile(Chip.BLACK));
+					this.changeTile(i, j, Chip.BLACK);
 				} else {
-					this.putTile(i, j, new Tile(Chip.WHITE));
+					this.changeTile(i, j, Chip.WHITE);
 				}
 			}
 		}
@@ -87,26 +184,46 @@ public class Board {
 	public Board(Board game) {
 		this.width = game.width;
 		this.turn = game.turn;
-		this.moveListStale = game.moveListStale;
 		this.blackToPlay = game.blackToPlay;
 
-		this.data = new Tile[this.width * this.width];
-		for(int i = 0; i < data.length; i++) {
-			this.data[i] = new Tile(game.data[i].getChip());
-		}
+		this.black = game.black;
+		this.white = game.white;
+		this.hash = game.hash;
 		this.moveList = new ArrayList<Move>();
-		this.moveList.addAll(game.moveList);
+		this.moveListStale = true;
 
 	}
 
 
+	/**
+	 * make this board a copy of another without allocating anything, so that
+	 * one board can be reused for many copies
+	 *
+	 * @param game the board to copy
+	 */
+	public void copyFrom(Board game) {
+		this.width = game.width;
+		this.turn = game.turn;
+		this.blackToPlay = game.blackToPlay;
+
+		this.black = game.black;
+		this.white = game.white;
+		this.hash = game.hash;
+		this.moveListStale = true;
+	}
+
+
 	public boolean isBlackToPlay() {
 		return this.blackToPlay;
 	}
 
 
 	public void setBlackToPlay(boolean blackToPlay) {
+		if (this.blackToPlay != blackToPlay) {
+			this.hash ^= WHITE_TO_PLAY_KEY;
+		}
 		this.blackToPlay = blackToPlay;
+		this.moveListStale = true;
 	}
 
 	
@@ -114,17 +231,22 @@ public class Board {
 	public boolean equals(Object obj) {
 		
 		Board cmp = (Board) obj;
-		boolean isequal = this.blackToPlay == cmp.blackToPlay && this.turn == cmp.turn && this.width == cmp.width;
-		
-		if (isequal) {
-			for (int i = 0; i < this.width * this.width; i++) {
-				if (this.data[i].getChip() != cmp.data[i].getChip()) {
-					return false;
-				}
-			}
-		}
-		
-		return true;
+		return this.blackToPlay == cmp.blackToPlay && this.turn == cmp.turn && this.width == cmp.width &&
+				this.black == cmp.black && this.white == cmp.white;
+	}
+
+
+	@Override
+	public int hashCode() {
+		return (int) (hash ^ (hash >>> 32));
+	}
+
+
+	/**
+	 * getter for the 64-bit Zobrist key of the position (chips and side to move)
+	 */
+	public long getHash() {
+		return hash;
 	}
 
 
@@ -144,12 +266,48 @@ public class Board {
 
 
 	/**
-	 * getter method for an indexed tile
+	 * getter for the squares holding chips of one color, as a bitboard with
+	 * bit (row*width)+col set for each square
 	 *
-	 * @param row the row index of the tile to retrieve
-	 * @param col the column index of the tile to retrieve
+	 * @param c the color; NONE gives the empty squares
 	 */
-	public Tile getTile(int row, int col) throws IndexOutOfBoundsException {
+	public long getChips(Chip c) {
+		switch (c) {
+		case BLACK:
+			return black;
+		case WHITE:
+			return white;
+		default:
+			return SQUARES[width] & ~(black | white);
+		}
+	}
+
+
+	/**
+	 * set up a position past the opening removals; the turn counter becomes
+	 * the first turn after them with the given player to move
+	 *
+	 * @param black the squares holding black chips, as a bitboard
+	 * @param white the squares holding white chips, as a bitboard
+	 * @param blackToPlay whether black is to move
+	 */
+	public void setPosition(long black, long white, boolean blackToPlay) {
+		this.black = black & SQUARES[width];
+		this.white = white & SQUARES[width] & ~this.black;
+		this.blackToPlay = blackToPlay;
+		this.turn = blackToPlay ? 2 : 3;
+		this.hash = keysOf(this.black, BLACK_KEYS) ^ keysOf(this.white, WHITE_KEYS) ^ (blackToPlay ? 0 : WHITE_TO_PLAY_KEY);
+		this.moveListStale = true;
+	}
+
+
+	/**
+	 * getter method for the chip on an indexed square
+	 *
+	 * @param row the row index of the square to look at
+	 * @param col the column index of the square to look at
+	 */
+	public Chip getChip(int row, int col) throws IndexOutOfBoundsException {
 		// bounds check
 		if ( row < 0 || row >= width || 
 				col < 0 || col >= width ) 
@@ -157,7 +315,24 @@ public class Board {
 			throw new IndexOutOfBoundsException("row and col (\"" + row + "\", \"" + 
 					col + "\") must satisfy: 0 <= index < " + width);
 		}
-		return data[ (row*width) + col ];
+		long bit = 1L << ((row*width) + col);
+		if ((black & bit) != 0) {
+			return Chip.BLACK;
+		} else if ((white & bit) != 0) {
+			return Chip.WHITE;
+		}
+		return Chip.NONE;
+	}
+	
+	/** 
+	 * getter method for an indexed tile; the tile is a snapshot of the square,
+	 * so changing it does not change the board
+	 *
+	 * @param row the row index of the tile to retrieve
+	 * @param col the column index of the tile to retrieve
+	 */
+	public Tile getTile(int row, int col) throws IndexOutOfBoundsException {
+		return new Tile(this.getChip(row, col));
 	}
 
 	/**
@@ -175,7 +350,7 @@ public class Board {
 	 * @param row the row index of the tile to retrieve
 	 * @param col the column index of the tile to retrieve
 	 */
-	private void putTile(int row, int col, Tile t) throws IndexOutOfBoundsException {
+	private void changeTile(int row, int col, Chip c) throws IndexOutOfBoundsException {
 		// bounds check
 		if ( row < 0 || row >= width || 
 				col < 0 || col >= width ) 
@@ -183,24 +358,36 @@ public class Board {
 			throw new IndexOutOfBoundsException("row and col (\"" + row + "\", \"" + 
 					col + "\") must satisfy: 0 <= index < " + width);
 		}
-		data[ (row*width) + col ] = t;
+		int square = (row*width) + col;
+		long bit = 1L << square;
+		if ((black & bit) != 0) {
+			hash ^= BLACK_KEYS[square];
+		} else if ((white & bit) != 0) {
+			hash ^= WHITE_KEYS[square];
+		}
+		black &= ~bit;
+		white &= ~bit;
+		if (c == Chip.BLACK) {
+			black |= bit;
+			hash ^= BLACK_KEYS[square];
+		} else if (c == Chip.WHITE) {
+			white |= bit;
+			hash ^= WHITE_KEYS[square];
+		}
 	}
 
 	/**
-	 * setter method for an indexed tile; non-public
+	 * combined Zobrist keys of every chip of one color on a set of squares
 	 *
-	 * @param row the row index of the tile to retrieve
-	 * @param col the column index of the tile to retrieve
+	 * @param squares the squares, as a bitboard
+	 * @param keys BLACK_KEYS or WHITE_KEYS
 	 */
-	private void changeTile(int row, int col, Chip c) throws IndexOutOfBoundsException {
-		// bounds check
-		if ( row < 0 || row >= width || 
-				col < 0 || col >= width ) 
-		{
-			throw new IndexOutOfBoundsException("row and col (\"" + row + "\", \"" + 
-					col + "\") must satisfy: 0 <= index < " + width);
+	private static long keysOf(long squares, long[] keys) {
+		long key = 0;
+		for (; squares != 0; squares &= squares - 1) {
+			key ^= keys[Long.numberOfTrailingZeros(squares)];
 		}
-		data[ (row*width) + col ].setChip(c);
+		return key;
 	}
 
 
@@ -209,24 +396,31 @@ public class Board {
 	 * 'b', 'w', or '.' depending on occupancy
 	 */
 	public String toString() {
-		String ret = "";
+		StringBuilder ret = new StringBuilder();
 
-		for (int i=0; i<(width*2)+3; i++, ret+="-") 
-			;
-		ret += "\n";
+		for (int i=0; i<(width*2)+3; i++)
+			ret.append('-');
+		ret.append('\n');
 
 		for (int i=0; i<width; i++) {
-			ret += "| ";
+			ret.append("| ");
 			for (int j=0; j<width; j++) {
-				ret += this.getTile(i, j).toString() + " ";
+				long bit = 1L << ((i*width) + j);
+				if ((black & bit) != 0) {
+					ret.append("b ");
+				} else if ((white & bit) != 0) {
+					ret.append("w ");
+				} else {
+					ret.append(". ");
+				}
 			}
-			ret += "|\n";
+			ret.append("|\n");
 		}
 
-		for (int i=0; i<(width*2)+3; i++, ret+="-") 
-			;
+		for (int i=0; i<(width*2)+3; i++)
+			ret.append('-');
 
-		return ret;
+		return ret.toString();
 	}
 
 	/**
@@ -236,7 +430,7 @@ public class Board {
 	public Chip gameWon() {
 
 		/* game is over when there are no legal moves for current player */
-		if (getLegalMoves().size() == 0) {
+		if (!hasLegalMove(blackToPlay ? Chip.BLACK : Chip.WHITE)) {
 			if (blackToPlay) { /* if black is out of moves, white wins */ 
 				return Chip.WHITE;
 			} else {
@@ -250,10 +444,10 @@ public class Board {
 
 	/**
 	 * return a list of all the legal moves for the current player given the
-	 * current state of the board
+	 * current state of the board, square by square in row-major order; from
+	 * each square, jumps go north, west, east then south, shortest first
 	 */
 	public ArrayList<Move> getLegalMoves() {
-		Chip friend, enemy;
 
 		/* if we've already calculated moves this turn, return cached results */
 		if (!moveListStale) {
@@ -264,101 +458,257 @@ public class Board {
 		moveList.clear();
 		moveListStale = false;
 
+		if (moveBuffer == null) {
+			moveBuffer = new int[Moves.MAX_MOVES];
+		}
+		int count = generateMoves(moveBuffer, 0);
+		/* generateMoves goes direction by direction; put the moves back in
+		 * square by square order (insertion sort: lists are short) */
+		for (int i = 1; i < count; i++) {
+			int move = moveBuffer[i];
+			int key = listOrder(move);
+			int j = i;
+			for (; j > 0 && listOrder(moveBuffer[j - 1]) > key; j--) {
+				moveBuffer[j] = moveBuffer[j - 1];
+			}
+			moveBuffer[j] = move;
+		}
+		for (int i = 0; i < count; i++) {
+			moveList.add(toMove(moveBuffer[i]));
+		}
+
+		return moveList;
+	}
+
+	/**
+	 * sort key of a packed move in getLegalMoves(): its from square, then its
+	 * direction (north, west, east, south), then its length
+	 *
+	 * @param move the packed move
+	 */
+	private int listOrder(int move) {
+		int from = Moves.from(move);
+		int delta = Moves.to(move) - from;
+		int direction;
+		if (delta < 0) {
+			direction = -delta >= width ? 0 : 1;
+		} else {
+			direction = delta >= width ? 3 : 2;
+		}
+		return (from << 8) | (direction << 6) | Math.abs(delta);
+	}
+
+	/**
+	 * write the legal moves for the current player, packed as by Moves.pack,
+	 * into an array; the same moves as getLegalMoves(), but nothing is
+	 * allocated. Jumps are listed direction by direction rather than square
+	 * by square, so the order differs from getLegalMoves()
+	 *
+	 * @param moves the array to fill; needs room for Moves.MAX_MOVES moves after offset
+	 * @param offset index of the first move to write
+	 * @return the number of moves written
+	 */
+	public int generateMoves(int[] moves, int offset) {
+		int count = offset;
+
 		/* special case for first 2 turns */
 
 		if (turn == 0) {  // first turn for black
-			Point p;
 			/* corner pieces */
-			p = new Point(0, 0);
-			moveList.add(new Move(p, p));
-			p = new Point((width/2)-1, (width/2)-1);
-			moveList.add(new Move(p, p));
-			p = new Point(width/2, width/2);
-			moveList.add(new Move(p, p));
-			p = new Point(width-1, width-1);
-			moveList.add(new Move(p, p));
+			moves[count++] = removal(0);
+			moves[count++] = removal(((width/2)-1) * (width+1));
+			moves[count++] = removal((width/2) * (width+1));
+			moves[count++] = removal((width*width) - 1);
 
-			return moveList;
+			return count - offset;
 		} else if (turn == 1) {  // first turn for white
-			/* scan board */
-			for (int row=0; row<width; row++) {
-				for (int col=0; col<width; col++) {
-					/* look for empty square */
-					if (this.getTile(row, col).getChip() == Chip.NONE) {
-						/* tiles adjacent to an empty square are valid second moves */
-						for (int rowChange=-1; rowChange<=1; rowChange++) {
-							for (int colChange=-1; colChange<=1; colChange++) {
-								if ((row+rowChange >= 0 && row+rowChange < width) && 
-										(col+colChange >= 0 && col+colChange < width) && 
-										(rowChange == 0 || colChange == 0) && 
-										(rowChange != colChange)) 
-								{  
-									Point p = new Point(row+rowChange, col+colChange);
-									moveList.add(new Move(p, p));
-								}
-							}
-						}
-					}
-				}
-			}
-
-			return moveList;
+			/* tiles adjacent to the empty square are valid second moves */
+			int empty = Long.numberOfTrailingZeros(SQUARES[width] & ~(black | white));
+			int row = empty / width;
+			int col = empty % width;
+			if (row > 0)
+				moves[count++] = removal(empty - width);
+			if (col > 0)
+				moves[count++] = removal(empty - 1);
+			if (col < width - 1)
+				moves[count++] = removal(empty + 1);
+			if (row < width - 1)
+				moves[count++] = removal(empty + width);
+
+			return count - offset;
 		}
 
 		/* general case */
 
 		/* figure out which color belongs to the current player */
-		if (blackToPlay) {
-			friend = Chip.BLACK;
-			enemy = Chip.WHITE;
-		} else {
-			friend = Chip.WHITE;
-			enemy = Chip.BLACK;
+		long friend = blackToPlay ? black : white;
+		long enemy = blackToPlay ? white : black;
+		long empty = SQUARES[width] & ~(black | white);
+
+		/* jump every chip at once, one direction at a time */
+		for (int dir = 0; dir < DIRECTIONS; dir++) {
+			int step = step(dir);
+			long canJump = JUMP_SOURCES[width][dir] & shift(enemy, -step) & shift(empty, -2 * step);
+
+			/* landing squares after 1, 2, ... jumps; stop once no chip can go further */
+			long landing = friend;
+			for (int jumps = 1; (landing = shift(landing & canJump, 2 * step)) != 0; jumps++) {
+				for (long l = landing; l != 0; l &= l - 1) {
+					int to = Long.numberOfTrailingZeros(l);
+					int from = to - (2 * jumps * step);
+					moves[count++] = Moves.pack(from, to);
+				}
+			}
 		}
 
-		/* loop over board */
-		for (int row=0; row<width; row++) {
-			for (int col=0; col<width; col++) {
-				/* for each square, check if the piece is ours; if not, we can't touch it */
-				if (this.getTile(row, col).getChip() == friend) {
-					Point start, end;
-					start = new Point(row, col);
-
-					/* see if we can make jumps in each direction */
-					for (int rowChange=-1; rowChange<=1; rowChange++) {
-						for (int colChange=-1; colChange<=1; colChange++) {
-							if ( (rowChange == 0 || colChange == 0) &&
-									(rowChange != 0 || colChange != 0))
-							{  // can only move in one direction at a time
-
-								for (int r=row+rowChange, c=col+colChange, i=1; r<width; r+=rowChange, c+=colChange, i++) {
-
-									if (r < 0 || r >= width || c < 0 || c >= width) {
-										break;  // we're out of bounds
-									}
-									if (i%2 == 0) {  // ...a square we want to land in 
-										if (getTile(r, c).getChip() == Chip.NONE) {
-											end = new Point(r, c);  // if it's empty, the move is good
-											moveList.add(new Move(start, end));
-										} else {
-											break;  // if it's not empty, we can't jump into it
-										}
-									} else {  // ...a square we want to jump over
-										if (getTile(r, c).getChip() != enemy) {
-											break;  // nothing to jump means we can't move this direction
-										}
-									}
-								}
+		return count - offset;
+	}
 
-							}
-						}
-					}
+	/**
+	 * get the Move object for a packed move on this board
+	 *
+	 * @param move the packed move
+	 */
+	public Move toMove(int move) {
+		return MOVES[width][(Moves.from(move) * width * width) + Moves.to(move)];
+	}
 
-				}
+	/**
+	 * pack a Move on this board, as by Moves.pack
+	 *
+	 * @param move the move
+	 */
+	public int pack(Move move) {
+		int from = (move.pointFrom().row() * width) + move.pointFrom().col();
+		int to = (move.pointTo().row() * width) + move.pointTo().col();
+		return Moves.pack(from, to);
+	}
+	
+	/** 
+	 * count the legal moves of the current player without building them;
+	 * always equal to getLegalMoves().size()
+	 */
+	public int countLegalMoves() {
+		return countLegalMoves(blackToPlay ? Chip.BLACK : Chip.WHITE);
+	}
+
+	/**
+	 * count the moves a player could make on this board if it were her turn,
+	 * without building them; the opening removals only count for the player
+	 * whose turn it actually is
+	 *
+	 * @param side the player to count moves for
+	 */
+	public int countLegalMoves(Chip side) {
+		return countMoves(side, false);
+	}
+
+	/**
+	 * test whether a player could move on this board if it were her turn;
+	 * stops at the first move found
+	 *
+	 * @param side the player to test
+	 */
+	public boolean hasLegalMove(Chip side) {
+		return countMoves(side, true) > 0;
+	}
+
+	/**
+	 * private function to count moves for countLegalMoves and hasLegalMove
+	 *
+	 * @param side the player to count moves for
+	 * @param any whether finding one move is enough
+	 */
+	private int countMoves(Chip side, boolean any) {
+		boolean toPlay = (side == Chip.BLACK) == blackToPlay;
+
+		/* special case for first 2 turns */
+
+		if (toPlay && turn == 0) {  // first turn for black: the four corner pieces
+			return 4;
+		} else if (toPlay && turn == 1) {  // first turn for white
+			/* tiles adjacent to the empty square are valid second moves */
+			int empty = Long.numberOfTrailingZeros(SQUARES[width] & ~(black | white));
+			int row = empty / width;
+			int col = empty % width;
+			return (row > 0 ? 1 : 0) + (col > 0 ? 1 : 0) + (col < width - 1 ? 1 : 0) + (row < width - 1 ? 1 : 0);
+		} else if (side == Chip.NONE) {
+			return 0;
+		}
+
+		/* general case: count the landing squares getLegalMoves would visit */
+		long friend = side == Chip.BLACK ? black : white;
+		long enemy = side == Chip.BLACK ? white : black;
+		long empty = SQUARES[width] & ~(black | white);
+		int count = 0;
+
+		for (int dir = 0; dir < DIRECTIONS; dir++) {
+			int step = step(dir);
+			long canJump = JUMP_SOURCES[width][dir] & shift(enemy, -step) & shift(empty, -2 * step);
+			if (any && (friend & canJump) != 0) {
+				return 1;
+			}
+
+			long landing = friend;
+			while ((landing = shift(landing & canJump, 2 * step)) != 0) {
+				count += Long.bitCount(landing);
 			}
 		}
 
-		return moveList;
+		return count;
+	}
+
+	/**
+	 * count the chips of one color on the board
+	 *
+	 * @param c the color to count; NONE counts the empty squares
+	 */
+	public int countChips(Chip c) {
+		switch (c) {
+		case BLACK:
+			return Long.bitCount(black);
+		case WHITE:
+			return Long.bitCount(white);
+		default:
+			return Long.bitCount(SQUARES[width] & ~(black | white));
+		}
+	}
+	
+	/** 
+	 * the removal of the chip on a square (opening moves), packed
+	 *
+	 * @param square the square, as a bit index
+	 */
+	private static int removal(int square) {
+		return Moves.pack(square, square);
+	}
+	
+	/** 
+	 * the change in bit index for one step in a direction
+	 *
+	 * @param dir one of NORTH, WEST, EAST, SOUTH
+	 */
+	private int step(int dir) {
+		switch (dir) {
+		case NORTH:
+			return -width;
+		case WEST:
+			return -1;
+		case EAST:
+			return 1;
+		default:
+			return width;
+		}
+	}
+	
+	/** 
+	 * move every bit of a bitboard by the same number of squares
+	 *
+	 * @param bits the bitboard to shift
+	 * @param squares how far to move each bit (negative moves toward bit 0)
+	 */
+	private static long shift(long bits, int squares) {
+		return squares >= 0 ? bits << squares : bits >>> -squares;
 	}
 
 
@@ -451,7 +801,7 @@ public class Board {
 								(rowChange == 0 || colChange == 0) &&  // can only move in one direction at a time...
 								(rowChange != 0 || colChange != 0))  // ...but need to move in *some* direction
 						{
-							if (this.getTile(row, col).getChip() == Chip.NONE) {
+							if (this.getChip(row, col) == Chip.NONE) {
 								/* if there's an adjacent empty square, the move is legal */
 								if (apply) {
 									changeTile(move.pointFrom().row(), move.pointFrom().col(), Chip.NONE);
@@ -481,12 +831,12 @@ public class Board {
 		}
 
 		/* check if chip to move is ours */
-		if (getTile(move.pointFrom()).getChip() != friend) {
+		if (getChip(move.pointFrom().row(), move.pointFrom().col()) != friend) {
 			throw new InvalidMoveException("Error: trying to move chip not owned by current player(" + move.pointFrom().row() + ", " + move.pointFrom().col() + ")");
 		}
 
 		/* check if place to put it is empty */
-		if (getTile(move.pointTo()).getChip() != Chip.NONE) {
+		if (getChip(move.pointTo().row(), move.pointTo().col()) != Chip.NONE) {
 			throw new InvalidMoveException("Error: trying to move chip into an occupied square(" + move.pointTo().row() + ", " + move.pointTo().col() + ")");
 		}
 
@@ -521,11 +871,11 @@ public class Board {
 				i++, r+=rowChange, c+=colChange)  // update indicies
 		{
 			/* check whether this tile has the right thing in it */
-			if (i%2 == 0 && getTile(r, c).getChip() != Chip.NONE) {
+			if (i%2 == 0 && getChip(r, c) != Chip.NONE) {
 				throw new InvalidMoveException("Error: trying to jump chip into an occupied square (" + r + ", " + c + ")");
-			} else if (i%2 != 0 && getTile(r, c).getChip() == friend) {
+			} else if (i%2 != 0 && getChip(r, c) == friend) {
 				throw new InvalidMoveException("Error: trying to jump chip over a friendly piece (" + r + ", " + c + ")");
-			} else if (i%2 != 0 && getTile(r, c).getChip() == Chip.NONE) {
+			} else if (i%2 != 0 && getChip(r, c) == Chip.NONE) {
 				throw new InvalidMoveException("Error: trying to jump chip over an empty square (" + r + ", " + c + ")");
 			}
 		}
@@ -552,11 +902,106 @@ public class Board {
 
 	}
 
+	/**
+	 * play a move in place, without the legality checks of executeMove; the
+	 * move must be one of getLegalMoves(). Records what changed in undo so
+	 * that unmakeMove can take the move back.
+	 *
+	 * @param move the move to play
+	 * @param undo record to fill in; may be reused once the move is unmade
+	 */
+	public void makeMove(Move move, Undo undo) {
+		makeMove(pack(move), undo);
+	}
+
+	/**
+	 * play a packed move in place; see makeMove(Move, Undo)
+	 *
+	 * @param move the move to play, packed as by Moves.pack
+	 * @param undo record to fill in; may be reused once the move is unmade
+	 */
+	public void makeMove(int move, Undo undo) {
+		int from = Moves.from(move);
+		int to = Moves.to(move);
+		long captured = CAPTURES[width][(from * width * width) + to];
+
+		undo.from = from;
+		undo.to = to;
+		undo.captured = captured;
+		undo.turn = turn;
+		undo.blackToPlay = blackToPlay;
+		undo.hash = hash;
+
+		/* a removal takes our own chip; a jump moves ours and takes the enemy's */
+		if (from == to) {
+			hash ^= keysOf(captured, blackToPlay ? BLACK_KEYS : WHITE_KEYS);
+			black &= ~captured;
+			white &= ~captured;
+		} else if (blackToPlay) {
+			black ^= (1L << from) | (1L << to);
+			white &= ~captured;
+			hash ^= BLACK_KEYS[from] ^ BLACK_KEYS[to] ^ keysOf(captured, WHITE_KEYS);
+		} else {
+			white ^= (1L << from) | (1L << to);
+			black &= ~captured;
+			hash ^= WHITE_KEYS[from] ^ WHITE_KEYS[to] ^ keysOf(captured, BLACK_KEYS);
+		}
+
+		this.endTurn();
+	}
+
+	/**
+	 * pass in place: the other player is to move on an unchanged board. Not
+	 * a legal move of the game; searches use it to see what having the move
+	 * is worth. Take it back with unmakeMove.
+	 *
+	 * @param undo record to fill in; may be reused once the pass is unmade
+	 */
+	public void makeNullMove(Undo undo) {
+		undo.from = 0;
+		undo.to = 0;
+		undo.captured = 0;
+		undo.turn = turn;
+		undo.blackToPlay = blackToPlay;
+		undo.hash = hash;
+
+		this.endTurn();
+	}
+
+	/**
+	 * take back the move recorded by the last makeMove or makeNullMove call that used undo
+	 *
+	 * @param undo the record filled in by makeMove
+	 */
+	public void unmakeMove(Undo undo) {
+		long captured = undo.captured;
+
+		if (undo.from == undo.to) {
+			if (undo.blackToPlay) {
+				black |= captured;
+			} else {
+				white |= captured;
+			}
+		} else if (undo.blackToPlay) {
+			black ^= (1L << undo.from) | (1L << undo.to);
+			white |= captured;
+		} else {
+			white ^= (1L << undo.from) | (1L << undo.to);
+			black |= captured;
+		}
+
+		blackToPlay = undo.blackToPlay;
+		turn = undo.turn;
+		hash = undo.hash;
+		moveListStale = true;
+	}
+
 	/** private function to do end-of-turn status update
 	 */
 	private void endTurn() { /////////
 		/* swap who's turn it is */
 		blackToPlay = !blackToPlay;
+		hash ^= WHITE_TO_PLAY_KEY;
 		/* mark movelist as stale */
 		moveListStale = true;
 		/* and increment the turn count */
@@ -0,0 +1,66 @@
+package edu.jhu.ben.cs335.hw2.board;
+
+/**
+ * Moves packed into a single int, for searching without allocating Move
+ * objects: the from and to squares, as bit indices (row*width)+col, sit in
+ * bits 6-11 and 0-5, and bit 12 is always set so that no move packs to NONE.
+ * A removal (the first two turns) has the same from and to square.
+ *
+ * Board.generateMoves fills arrays of packed moves, Board.makeMove plays
+ * them, and Board.toMove turns one back into a Move.
+ *
+ * @author Zhihao Cao
+ */
+public final class Moves {
+
+	/**
+	 * not a move
+	 */
+	public static final int NONE = 0;
+
+	/**
+	 * every packed move is below this, so it can index a table of this size
+	 */
+	public static final int LIMIT = 1 << 13;
+
+	/**
+	 * most moves any position has: at most 32 chips of a color, each jumping
+	 * in 4 directions at most 3 times
+	 */
+	public static final int MAX_MOVES = 384;
+
+	/**
+	 * most moves any game lasts, since every move takes at least one chip
+	 */
+	public static final int MAX_PLY = 64;
+
+	private static final int PACKED = 1 << 12;
+
+	private Moves() {
+	}
+
+	/**
+	 * pack a move
+	 *
+	 * @param from the square the move starts on
+	 * @param to the square the move ends on; the same as from for a removal
+	 */
+	public static int pack(int from, int to) {
+		return PACKED | (from << 6) | to;
+	}
+
+	/**
+	 * the square a packed move starts on
+	 */
+	public static int from(int move) {
+		return (move >>> 6) & 0x3F;
+	}
+
+	/**
+	 * the square a packed move ends on
+	 */
+	public static int to(int move) {
+		return move & 0x3F;
+	}
+
+}
@@ -0,0 +1,34 @@
+package edu.jhu.ben.cs335.hw2.board;
+
+/**
+ * Record of what Board.makeMove changed, so that Board.unmakeMove can put
+ * the board back; one record can be reused for any number of moves
+ *
+ * @author Zhihao Cao
+ */
+public class Undo {
+
+	/**
+	 * squares the move was played from and to, as bit indices
+	 */
+	int from;
+	int to;
+
+	/**
+	 * squares whose chips were removed by the move (the jumped chips, or the
+	 * removed chip on the first two turns)
+	 */
+	long captured;
+
+	/**
+	 * turn counter and side to move before the move was played
+	 */
+	int turn;
+	boolean blackToPlay;
+
+	/**
+	 * Zobrist key of the position before the move was played
+	 */
+	long hash;
+
+}
@@ -0,0 +1,224 @@
+package edu.jhu.ben.cs335.hw2.book;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+
+import edu.jhu.ben.cs335.hw2.board.Board;
+import edu.jhu.ben.cs335.hw2.board.Chip;
+import edu.jhu.ben.cs335.hw2.board.Moves;
+import edu.jhu.ben.cs335.hw2.board.Undo;
+import edu.jhu.ben.cs335.hw2.players.SearchPlayer;
+import edu.jhu.ben.cs335.hw2.search.AlphaBetaSearch;
+import edu.jhu.ben.cs335.hw2.search.LazySmp;
+import edu.jhu.ben.cs335.hw2.search.TranspositionTable;
+
+/**
+ * Builds the opening book for a board size offline.
+ *
+ * Every position reachable in the first few turns of a game, both players'
+ * turns, is searched to a fixed depth with the parallel alpha-beta search,
+ * and its best move and score are written to the file OpeningBook maps.
+ * Usage: BookBuilder size turns depth [threads]; the build to record in the
+ * header is taken from the konane.book.build property, which the Makefile
+ * sets to the git hash of the source tree.
+ *
+ * @author Zhihao Cao
+ */
+public class BookBuilder {
+
+	private int size;
+	private int depth;
+	private int threads;
+	private String build;
+	private ArrayList<Board> positions;
+	private long[] keys;
+	private int[] moves;
+	private int[] scores;
+
+	/**
+	 * Create a BookBuilder
+	 *
+	 * @param size		the board size
+	 * @param depth		depth every position is searched to
+	 * @param threads	number of search threads
+	 */
+	public BookBuilder(int size, int depth, int threads) {
+		this.size = size;
+		this.depth = depth;
+		this.threads = Math.max(1, threads);
+		this.positions = new ArrayList<Board>();
+		this.build = OpeningBook.UNKNOWN_BUILD;
+	}
+
+	/**
+	 * Set the build to record in the book's header; names longer than
+	 * OpeningBook.BUILD_BYTES are cut short
+	 *
+	 * @param build	the git hash of the source tree the book is built with
+	 */
+	public void setBuild(String build) {
+		this.build = build;
+	}
+
+	/**
+	 * Collect every position of the first turns of a game that is not over,
+	 * each once however many ways it can be reached
+	 *
+	 * @param turns	number of turns to cover, counting both players'
+	 */
+	public void collect(int turns) {
+		HashSet<Long> seen = new HashSet<Long>();
+		ArrayList<Board> frontier = new ArrayList<Board>();
+		frontier.add(new Board(this.size));
+		int[] generated = new int[Moves.MAX_MOVES];
+		Undo undo = new Undo();
+		for (int turn = 0; turn < turns; turn++) {
+			ArrayList<Board> next = new ArrayList<Board>();
+			for (Board game : frontier) {
+				if (game.gameWon() != Chip.NONE || !seen.add(game.getHash())) {
+					continue;
+				}
+				this.positions.add(game);
+				int count = game.generateMoves(generated, 0);
+				for (int i = 0; i < count; i++) {
+					Board child = new Board(game);
+					child.makeMove(generated[i], undo);
+					next.add(child);
+				}
+			}
+			frontier = next;
+		}
+	}
+
+	/**
+	 * Search every collected position
+	 */
+	public void search() {
+		int count = this.positions.size();
+		this.keys = new long[count];
+		this.moves = new int[count];
+		this.scores = new int[count];
+
+		/* Node.eval scores a position differently for each player, so each color gets its own search and table */
+		AlphaBetaSearch[] searches = new AlphaBetaSearch[2];
+		LazySmp[] helpers = new LazySmp[2];
+		TranspositionTable[] tables = new TranspositionTable[2];
+		Chip[] colors = { Chip.BLACK, Chip.WHITE };
+		for (int c = 0; c < 2; c++) {
+			tables[c] = new TranspositionTable(SearchPlayer.DEFAULT_TABLE_MEGABYTES * 4);
+			searches[c] = new AlphaBetaSearch(colors[c], true, tables[c]);
+			if (this.threads > 1) {
+				helpers[c] = new LazySmp(this.threads, colors[c], true, tables[c]);
+			}
+		}
+
+		long startTime = System.nanoTime();
+		for (int i = 0; i < count; i++) {
+			Board game = this.positions.get(i);
+			int c = game.isBlackToPlay() ? 0 : 1;
+			tables[c].newSearch();
+			if (helpers[c] != null) {
+				helpers[c].start(game, null);
+			}
+			searches[c].resetStatistics();
+			this.scores[i] = searches[c].search(game, this.depth);
+			if (helpers[c] != null) {
+				helpers[c].stop();
+			}
+			this.keys[i] = game.getHash();
+			this.moves[i] = game.pack(searches[c].getBestMove());
+			System.out.println("Position " + (i + 1) + "/" + count + ", turn " + game.getTurn()
+					+ ": " + searches[c].getBestMove() + ", score " + this.scores[i]);
+		}
+		System.out.println("Searched in " + ((System.nanoTime() - startTime) / 1e9) + "s");
+
+		for (LazySmp helper : helpers) {
+			if (helper != null) {
+				helper.shutdown();
+			}
+		}
+	}
+
+	/**
+	 * Write the book, entries sorted by key
+	 *
+	 * @param path	the book file
+	 * @throws IOException	if the file cannot be written
+	 */
+	public void write(Path path) throws IOException {
+		int count = this.keys.length;
+		Integer[] order = new Integer[count];
+		for (int i = 0; i < count; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			public int compare(Integer a, Integer b) {
+				return Long.compare(keys[a], keys[b]);
+			}
+		});
+
+		ByteBuffer buffer = ByteBuffer.allocate((count + OpeningBook.HEADER_ENTRIES) * OpeningBook.ENTRY_BYTES);
+		buffer.putInt(OpeningBook.MAGIC);
+		buffer.putInt(OpeningBook.VERSION);
+		buffer.put((byte) this.size);
+		buffer.put((byte) this.depth);
+		buffer.putShort((short) 0);
+		buffer.putInt(count);
+		byte[] name = this.build.getBytes(StandardCharsets.US_ASCII);
+		buffer.put(name, 0, Math.min(name.length, OpeningBook.BUILD_BYTES));
+		buffer.position(OpeningBook.HEADER_ENTRIES * OpeningBook.ENTRY_BYTES);
+		for (int i : order) {
+			buffer.putLong(this.keys[i]);
+			buffer.putInt(this.moves[i]);
+			buffer.putInt(this.scores[i]);
+		}
+		buffer.flip();
+
+		if (path.getParent() != null) {
+			Files.createDirectories(path.getParent());
+		}
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		try {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		} finally {
+			channel.close();
+		}
+	}
+
+	public static void main(String[] args) {
+		if (args.length < 3) {
+			System.err.println("usage: BookBuilder size turns depth [threads]");
+			System.exit(1);
+		}
+		int size = Integer.parseInt(args[0]);
+		int turns = Integer.parseInt(args[1]);
+		int depth = Integer.parseInt(args[2]);
+		int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+		BookBuilder builder = new BookBuilder(size, depth, threads);
+		builder.setBuild(System.getProperty(OpeningBook.BUILD_PROPERTY, OpeningBook.UNKNOWN_BUILD));
+		builder.collect(turns);
+		builder.search();
+		Path path = OpeningBook.pathFor(size);
+		try {
+			builder.write(path);
+		} catch (IOException e) {
+			System.err.println("Caught an exception: \n\t" + e.toString());
+			System.exit(1);
+		}
+		System.out.println("Wrote " + builder.positions.size() + " positions to " + path + ", build " + builder.build);
+	}
+
+}
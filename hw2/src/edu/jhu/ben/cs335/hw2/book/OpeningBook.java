@@ -0,0 +1,265 @@
+package edu.jhu.ben.cs335.hw2.book;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import edu.jhu.ben.cs335.hw2.board.Board;
+import edu.jhu.ben.cs335.hw2.board.Move;
+import edu.jhu.ben.cs335.hw2.board.Moves;
+
+/**
+ * Read-only opening book for one board size, memory-mapped from a file
+ * written by BookBuilder.
+ *
+ * The file is a header followed by entries sorted by position key. The
+ * header takes HEADER_ENTRIES entries' room: the magic number, layout
+ * version, board size, search depth and entry count, then the build the book
+ * was made with (the git hash of the source tree), so that a book left
+ * over from an older search can be told apart. An entry holds the Zobrist
+ * key of a position, the best move for the side to move packed as by
+ * Moves.pack, and the score of that move from the side to move's point of
+ * view. Probing is a binary search over
+ * the mapping, so opening a book reads nothing up front and a probe touches a
+ * handful of pages; several players and threads may share one book.
+ *
+ * @author Zhihao Cao
+ */
+public class OpeningBook {
+
+	/**
+	 * bytes per entry
+	 */
+	public static final int ENTRY_BYTES = 16;
+
+	/**
+	 * number of entries' room the header takes
+	 */
+	public static final int HEADER_ENTRIES = 2;
+
+	/**
+	 * most bytes of the build name kept in the header
+	 */
+	public static final int BUILD_BYTES = ENTRY_BYTES;
+
+	/**
+	 * first four bytes of every book file: "KNBK"
+	 */
+	public static final int MAGIC = 0x4b4e424b;
+
+	/**
+	 * version of the file layout, stored after the magic number
+	 */
+	public static final int VERSION = 1;
+
+	/**
+	 * system property naming the directory books are kept in
+	 */
+	public static final String DIRECTORY_PROPERTY = "konane.book.dir";
+
+	/**
+	 * directory books are kept in when the property is not set; relative to
+	 * src/, where the Makefile runs the game, like its bin and doc directories
+	 */
+	public static final String DEFAULT_DIRECTORY = "../book";
+
+	/**
+	 * system property BookBuilder takes the build name from
+	 */
+	public static final String BUILD_PROPERTY = "konane.book.build";
+
+	/**
+	 * build name of books that do not record one
+	 */
+	public static final String UNKNOWN_BUILD = "unknown";
+
+	private ByteBuffer entries;
+	private int size;
+	private int depth;
+	private int count;
+	private String build;
+
+	/**
+	 * Map a book file into memory
+	 *
+	 * @param path	the book file
+	 * @throws IOException	if the file cannot be read or is not a book
+	 */
+	public OpeningBook(Path path) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			long length = channel.size();
+			if (length < ENTRY_BYTES || length % ENTRY_BYTES != 0) {
+				throw new IOException(path + " is not an opening book");
+			}
+			/* the mapping stays valid after the channel is closed */
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+			if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+				throw new IOException(path + " is not an opening book");
+			}
+			this.size = buffer.get(8);
+			this.depth = buffer.get(9);
+			this.count = buffer.getInt(12);
+			if ((long) (this.count + HEADER_ENTRIES) * ENTRY_BYTES != length) {
+				throw new IOException(path + " is truncated");
+			}
+			this.entries = buffer;
+			this.build = readBuild(buffer);
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Get the file a book for a board size is kept in
+	 *
+	 * @param size	the board size
+	 * @return		the book file, which need not exist
+	 */
+	public static Path pathFor(int size) {
+		String directory = System.getProperty(DIRECTORY_PROPERTY, DEFAULT_DIRECTORY);
+		return new File(directory, "konane-" + size + ".book").toPath();
+	}
+
+	/**
+	 * Open the book for a board size, if there is one
+	 *
+	 * @param size	the board size
+	 * @return		the book, or null if its file is missing or unreadable
+	 */
+	public static OpeningBook open(int size) {
+		Path path = pathFor(size);
+		if (!path.toFile().isFile()) {
+			return null;
+		}
+		try {
+			return new OpeningBook(path);
+		} catch (IOException e) {
+			System.err.println("Could not open opening book: " + e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Look a position up in the book
+	 *
+	 * @param game	the current game state
+	 * @return		the book move, or null if the position is not in the book
+	 */
+	public Move probe(Board game) {
+		int index = this.find(game);
+		if (index < 0) {
+			return null;
+		}
+		int move = this.entries.getInt((index + HEADER_ENTRIES) * ENTRY_BYTES + 8);
+		/* guard against another position with the same key, or a damaged file:
+		 * only a move the position has is turned into a Move */
+		int[] moves = new int[Moves.MAX_MOVES];
+		int count = game.generateMoves(moves, 0);
+		for (int i = 0; i < count; i++) {
+			if (moves[i] == move) {
+				return game.toMove(move);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Get the score the book gives a position
+	 *
+	 * @param game	the current game state
+	 * @return		the score for the side to move; 0 if the position is not in the book
+	 */
+	public int getScore(Board game) {
+		int index = this.find(game);
+		return index < 0 ? 0 : this.entries.getInt((index + HEADER_ENTRIES) * ENTRY_BYTES + 12);
+	}
+
+	/**
+	 * Get the board size the book was built for
+	 *
+	 * @return	the board size
+	 */
+	public int getSize() {
+		return this.size;
+	}
+
+	/**
+	 * Get the depth every position in the book was searched to
+	 *
+	 * @return	the search depth
+	 */
+	public int getDepth() {
+		return this.depth;
+	}
+
+	/**
+	 * Get the number of positions in the book
+	 *
+	 * @return	the number of entries
+	 */
+	public int getCount() {
+		return this.count;
+	}
+
+	/**
+	 * Get the build the book was made with, to compare against the tree
+	 * playing from it
+	 *
+	 * @return	the source tree hash BookBuilder was run with, or UNKNOWN_BUILD
+	 */
+	public String getBuild() {
+		return this.build;
+	}
+
+	/**
+	 * Subfunction of the constructor: read the build name out of the second
+	 * header entry, where it is padded with zero bytes
+	 *
+	 * @param buffer	the mapped book
+	 * @return		the build name
+	 */
+	private static String readBuild(ByteBuffer buffer) {
+		byte[] name = new byte[BUILD_BYTES];
+		int length = 0;
+		while (length < BUILD_BYTES && buffer.get(ENTRY_BYTES + length) != 0) {
+			name[length] = buffer.get(ENTRY_BYTES + length);
+			length++;
+		}
+		return length == 0 ? UNKNOWN_BUILD : new String(name, 0, length, StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 * Subfunction of probe and getScore: binary search for a position
+	 *
+	 * @param game	the current game state
+	 * @return		the index of its entry, or -1 if there is none
+	 */
+	private int find(Board game) {
+		if (game.getSize() != this.size) {
+			return -1;
+		}
+		long key = game.getHash();
+		int low = 0;
+		int high = this.count - 1;
+		while (low <= high) {
+			int mid = (low + high) >>> 1;
+			long midKey = this.entries.getLong((mid + HEADER_ENTRIES) * ENTRY_BYTES);
+			if (midKey < key) {
+				low = mid + 1;
+			} else if (midKey > key) {
+				high = mid - 1;
+			} else {
+				int move = this.entries.getInt((mid + HEADER_ENTRIES) * ENTRY_BYTES + 8);
+				return move == Moves.NONE ? -1 : mid;
+			}
+		}
+		return -1;
+	}
+
+}
@@ -0,0 +1,312 @@
+package edu.jhu.ben.cs335.hw2.endgame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Canonical forms of short partizan games, as combinatorial game theory
+ * defines them, with Left as black and Right as white.
+ *
+ * Every game built here is reduced to its canonical form (no dominated and
+ * no reversible options) and stored once, so a game is an int: two games
+ * are equal exactly when their ints are. Comparisons and sums are memoized.
+ * An instance belongs to one thread at a time.
+ *
+ * @author Zhihao Cao
+ */
+class CanonicalGames {
+
+	/**
+	 * the game with no options, {|}, where the player to move loses
+	 */
+	static final int ZERO = 0;
+
+	private ArrayList<int[]> lefts;
+	private ArrayList<int[]> rights;
+	private HashMap<Options, Integer> forms;
+	private HashMap<Long, Boolean> lessOrEqual;
+	private HashMap<Long, Integer> sums;
+
+	/**
+	 * Create a CanonicalGames that knows only ZERO
+	 */
+	CanonicalGames() {
+		this.lefts = new ArrayList<int[]>();
+		this.rights = new ArrayList<int[]>();
+		this.forms = new HashMap<Options, Integer>();
+		this.lessOrEqual = new HashMap<Long, Boolean>();
+		this.sums = new HashMap<Long, Integer>();
+		this.intern(new int[0], new int[0]);
+	}
+
+	/**
+	 * Get the number of games, comparisons and sums stored, a measure of the
+	 * memory used
+	 *
+	 * @return	the number of entries
+	 */
+	int size() {
+		return this.lefts.size() + this.lessOrEqual.size() + this.sums.size();
+	}
+
+	/**
+	 * Build the game {left | right} in canonical form
+	 *
+	 * @param left	Left's options, canonical; not modified
+	 * @param right	Right's options, canonical; not modified
+	 * @return		the game
+	 */
+	int make(int[] left, int[] right) {
+		left = this.removeDominated(left, true);
+		right = this.removeDominated(right, false);
+
+		/* bypass reversible options until there are none left */
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int i = 0; i < left.length && !changed; i++) {
+				for (int reply : this.rights.get(left[i])) {
+					if (this.lessOrEqual(reply, left, right)) {
+						left = this.removeDominated(replace(left, i, this.lefts.get(reply)), true);
+						changed = true;
+						break;
+					}
+				}
+			}
+			for (int i = 0; i < right.length && !changed; i++) {
+				for (int reply : this.lefts.get(right[i])) {
+					if (this.lessOrEqual(left, right, reply)) {
+						right = this.removeDominated(replace(right, i, this.rights.get(reply)), false);
+						changed = true;
+						break;
+					}
+				}
+			}
+		}
+		return this.intern(left, right);
+	}
+
+	/**
+	 * Add two games: the game of playing both side by side, a move in either
+	 * on each turn
+	 *
+	 * @param g	a game
+	 * @param h	another game
+	 * @return	their sum
+	 */
+	int add(int g, int h) {
+		if (g == ZERO) {
+			return h;
+		} else if (h == ZERO) {
+			return g;
+		}
+		long key = g < h ? ((long) g << 32) | h : ((long) h << 32) | g;
+		Integer known = this.sums.get(key);
+		if (known != null) {
+			return known;
+		}
+
+		int[] gLeft = this.lefts.get(g), hLeft = this.lefts.get(h);
+		int[] gRight = this.rights.get(g), hRight = this.rights.get(h);
+		int[] left = new int[gLeft.length + hLeft.length];
+		int[] right = new int[gRight.length + hRight.length];
+		for (int i = 0; i < gLeft.length; i++) {
+			left[i] = this.add(gLeft[i], h);
+		}
+		for (int i = 0; i < hLeft.length; i++) {
+			left[gLeft.length + i] = this.add(g, hLeft[i]);
+		}
+		for (int i = 0; i < gRight.length; i++) {
+			right[i] = this.add(gRight[i], h);
+		}
+		for (int i = 0; i < hRight.length; i++) {
+			right[gRight.length + i] = this.add(g, hRight[i]);
+		}
+		int sum = this.make(left, right);
+		this.sums.put(key, sum);
+		return sum;
+	}
+
+	/**
+	 * Whether g is at most h: Right wins h - g moving second
+	 *
+	 * @param g	a game
+	 * @param h	another game
+	 * @return	true if g is less than or equal to h
+	 */
+	boolean lessOrEqual(int g, int h) {
+		if (g == h) {
+			return true;
+		}
+		long key = ((long) g << 32) | h;
+		Boolean known = this.lessOrEqual.get(key);
+		if (known != null) {
+			return known;
+		}
+
+		/* no Left option of g at least h, and no Right option of h at most g */
+		boolean result = true;
+		for (int gl : this.lefts.get(g)) {
+			if (this.lessOrEqual(h, gl)) {
+				result = false;
+				break;
+			}
+		}
+		if (result) {
+			for (int hr : this.rights.get(h)) {
+				if (this.lessOrEqual(hr, g)) {
+					result = false;
+					break;
+				}
+			}
+		}
+		this.lessOrEqual.put(key, result);
+		return result;
+	}
+
+	/**
+	 * Whether the first player to move wins a game, and which player that is
+	 *
+	 * @param g				the game
+	 * @param leftToMove	whether Left (black) moves first
+	 * @return				true if the player to move wins
+	 */
+	boolean firstPlayerWins(int g, boolean leftToMove) {
+		/* Left moving first wins unless g <= 0; Right unless g >= 0 */
+		return leftToMove ? !this.lessOrEqual(g, ZERO) : !this.lessOrEqual(ZERO, g);
+	}
+
+	/**
+	 * Subfunction of make: whether a stored game is at most the game
+	 * {left | right}, which is not stored yet
+	 */
+	private boolean lessOrEqual(int g, int[] left, int[] right) {
+		for (int gl : this.lefts.get(g)) {
+			if (this.lessOrEqual(left, right, gl)) {
+				return false;
+			}
+		}
+		for (int hr : right) {
+			if (this.lessOrEqual(hr, g)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Subfunction of make: whether the game {left | right}, which is not
+	 * stored yet, is at most a stored game
+	 */
+	private boolean lessOrEqual(int[] left, int[] right, int h) {
+		for (int gl : left) {
+			if (this.lessOrEqual(h, gl)) {
+				return false;
+			}
+		}
+		for (int hr : this.rights.get(h)) {
+			if (this.lessOrEqual(hr, left, right)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Subfunction of make: drop duplicate options, and options the player
+	 * has a better or equal alternative to
+	 *
+	 * @param options	the options
+	 * @param left		true for Left's options, which Left wants large
+	 * @return			the options that are left, sorted
+	 */
+	private int[] removeDominated(int[] options, boolean left) {
+		int[] sorted = options.clone();
+		Arrays.sort(sorted);
+		int count = 0;
+		for (int i = 0; i < sorted.length; i++) {
+			if (i == 0 || sorted[i] != sorted[i - 1]) {
+				sorted[count++] = sorted[i];
+			}
+		}
+
+		int[] kept = new int[count];
+		int keptCount = 0;
+		for (int i = 0; i < count; i++) {
+			boolean dominated = false;
+			for (int j = 0; j < count && !dominated; j++) {
+				if (i != j) {
+					dominated = left ? this.lessOrEqual(sorted[i], sorted[j]) : this.lessOrEqual(sorted[j], sorted[i]);
+				}
+			}
+			if (!dominated) {
+				kept[keptCount++] = sorted[i];
+			}
+		}
+		return Arrays.copyOf(kept, keptCount);
+	}
+
+	/**
+	 * Subfunction of make: an option list with one option swapped for others
+	 */
+	private static int[] replace(int[] options, int index, int[] replacements) {
+		int[] result = new int[options.length - 1 + replacements.length];
+		System.arraycopy(options, 0, result, 0, index);
+		System.arraycopy(options, index + 1, result, index, options.length - index - 1);
+		System.arraycopy(replacements, 0, result, options.length - 1, replacements.length);
+		return result;
+	}
+
+	/**
+	 * Subfunction of make: the int of a canonical game, storing it if it is new
+	 *
+	 * @param left	Left's options, sorted
+	 * @param right	Right's options, sorted
+	 * @return		the game
+	 */
+	private int intern(int[] left, int[] right) {
+		Options options = new Options(left, right);
+		Integer known = this.forms.get(options);
+		if (known != null) {
+			return known;
+		}
+		int g = this.lefts.size();
+		this.lefts.add(left);
+		this.rights.add(right);
+		this.forms.put(options, g);
+		return g;
+	}
+
+	/**
+	 * The options of a canonical game, as a key to find it by
+	 */
+	private static class Options {
+
+		private int[] left;
+		private int[] right;
+		private int hash;
+
+		Options(int[] left, int[] right) {
+			this.left = left;
+			this.right = right;
+			this.hash = Arrays.hashCode(left) * 31 + Arrays.hashCode(right);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Options)) {
+				return false;
+			}
+			Options other = (Options) obj;
+			return Arrays.equals(this.left, other.left) && Arrays.equals(this.right, other.right);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+	}
+
+}
@@ -0,0 +1,511 @@
+package edu.jhu.ben.cs335.hw2.endgame;
+
+import java.util.HashMap;
+
+import edu.jhu.ben.cs335.hw2.board.Board;
+import edu.jhu.ben.cs335.hw2.board.Chip;
+import edu.jhu.ben.cs335.hw2.board.Moves;
+import edu.jhu.ben.cs335.hw2.board.Undo;
+
+/**
+ * Exact endgame solver that splits a position into regions that can never
+ * interact and plays them as a sum of combinatorial games.
+ *
+ * Every black move takes at least one white chip of its region, so over the
+ * rest of the game a black chip moves at most twice as many squares as its
+ * region has white chips, and a white chip likewise; the squares a region's
+ * chips can reach are its footprint. Regions whose footprints neither
+ * overlap nor touch can never jump each other's chips or block each other's
+ * landings, so the position is the sum of its regions. Regions start as
+ * groups of chips touching side by side and are merged until their
+ * footprints are apart.
+ *
+ * The value of each region, with black as Left, is worked out once per
+ * shape (its chips relative to each other, and the board edges as far as
+ * they can matter, under the 8 symmetries of the board) and kept; the
+ * values of the regions are added, and the outcome read off the sum.
+ *
+ * One solver may be probed by several search threads at once. Splitting a
+ * position into regions and looking up results by position take no lock:
+ * each thread splits positions in its own scratch arrays, and the result
+ * cache stores keys xor-ed with their results, as TranspositionTable does,
+ * so a slot half overwritten by another thread reads as a miss. Positions
+ * whose chips all touch are turned away before either, and only positions
+ * of two or more small regions go on to take the lock, which guards the
+ * region values and the games they are made of.
+ *
+ * @author Zhihao Cao
+ */
+public class DecompositionSolver {
+
+	/**
+	 * most chips on the board for a position to be tried
+	 */
+	public static final int MAX_CHIPS = 24;
+
+	/**
+	 * most chips in one region for a position to be solved
+	 */
+	public static final int MAX_REGION_CHIPS = 10;
+
+	/**
+	 * results kept by position, a power of 2
+	 */
+	private static final int CACHE_SIZE = 1 << 16;
+
+	/**
+	 * games stored before the memory is cleared
+	 */
+	private static final int MAX_GAMES = 1 << 21;
+
+	private static final long EMPTY = 0;
+	private static final long NOT_DECOMPOSED = 1;
+	private static final long WON = 2;
+	private static final long LOST = 3;
+
+	private int width;
+	private long squares;
+	private long notWest;
+	private long notEast;
+	private long[][] balls;
+	private CanonicalGames games;
+	private HashMap<RegionKey, Integer> regionValues;
+	private final long[] cacheKeys;
+	private final long[] cacheResults;
+	private final ThreadLocal<Scratch> scratch;
+	private long solved;
+
+	/**
+	 * Create a DecompositionSolver
+	 *
+	 * @param size	the board size it solves positions of
+	 * @throws IllegalArgumentException	if the size is not a legal board size
+	 */
+	public DecompositionSolver(int size) throws IllegalArgumentException {
+		new Board(size);
+		this.width = size;
+		this.squares = size * size == Long.SIZE ? -1L : (1L << (size * size)) - 1;
+		for (int row = 0; row < size; row++) {
+			this.notWest |= ((1L << size) - 2) << (row * size);
+			this.notEast |= ((1L << (size - 1)) - 1) << (row * size);
+		}
+
+		/* the squares a chip can reach with k jumps, those an even distance up to 2k away */
+		this.balls = new long[size * size][size];
+		for (int sq = 0; sq < size * size; sq++) {
+			for (int k = 0; k < size; k++) {
+				for (int t = 0; t < size * size; t++) {
+					int distance = Math.abs(sq / size - t / size) + Math.abs(sq % size - t % size);
+					if (distance % 2 == 0 && distance <= 2 * k) {
+						this.balls[sq][k] |= 1L << t;
+					}
+				}
+			}
+		}
+		this.cacheKeys = new long[CACHE_SIZE];
+		this.cacheResults = new long[CACHE_SIZE];
+		this.scratch = new ThreadLocal<Scratch>() {
+			@Override
+			protected Scratch initialValue() {
+				return new Scratch();
+			}
+		};
+		this.clear();
+	}
+
+	/**
+	 * Solve a position that splits into at least two regions, none with more
+	 * than MAX_REGION_CHIPS chips
+	 *
+	 * @param game	the position; not modified
+	 * @return		Tablebase.WIN or Tablebase.LOSS for the player to move, or
+	 * 				Tablebase.UNKNOWN if the position is not solved this way
+	 */
+	public int probe(Board game) {
+		if (game.getTurn() < 2) {
+			return Tablebase.UNKNOWN;
+		}
+		long black = game.getChips(Chip.BLACK);
+		long white = game.getChips(Chip.WHITE);
+		if (Long.bitCount(black | white) > MAX_CHIPS || this.isOneGroup(black | white)) {
+			return Tablebase.UNKNOWN;
+		}
+
+		long hash = game.getHash();
+		int slot = (int) hash & (CACHE_SIZE - 1);
+		long cached = this.cacheResults[slot];
+		if (cached != EMPTY && (this.cacheKeys[slot] ^ cached) == hash) {
+			return toResult(cached);
+		}
+
+		long result = NOT_DECOMPOSED;
+		Scratch scratch = this.scratch.get();
+		int regions = this.decompose(black, white, scratch.regionBlack, scratch.regionWhite);
+		boolean small = regions >= 2;
+		for (int i = 0; i < regions && small; i++) {
+			small = Long.bitCount(scratch.regionBlack[i] | scratch.regionWhite[i]) <= MAX_REGION_CHIPS;
+		}
+		if (small) {
+			result = this.solve(scratch.regionBlack, scratch.regionWhite, regions, game.isBlackToPlay()) ? WON : LOST;
+		}
+
+		this.cacheKeys[slot] = hash ^ result;
+		this.cacheResults[slot] = result;
+		return toResult(result);
+	}
+
+	/**
+	 * Subfunction of probe: add up the values of the regions of a position
+	 * and read the outcome off the sum
+	 *
+	 * @param regionBlack	the black chips of each region
+	 * @param regionWhite	the white chips of each region
+	 * @param regions		the number of regions
+	 * @param blackToPlay	whether black is to move
+	 * @return				true if the player to move wins
+	 */
+	private synchronized boolean solve(long[] regionBlack, long[] regionWhite, int regions, boolean blackToPlay) {
+		if (this.games.size() > MAX_GAMES) {
+			this.clear();
+		}
+		int sum = CanonicalGames.ZERO;
+		for (int i = 0; i < regions; i++) {
+			sum = this.games.add(sum, this.regionValue(regionBlack[i], regionWhite[i]));
+		}
+		this.solved++;
+		return this.games.firstPlayerWins(sum, blackToPlay);
+	}
+
+	/**
+	 * Split a position into regions that can never interact
+	 *
+	 * @param game	the position
+	 * @return		the number of regions; 0 if the board is empty
+	 */
+	public int countRegions(Board game) {
+		Scratch scratch = this.scratch.get();
+		return this.decompose(game.getChips(Chip.BLACK), game.getChips(Chip.WHITE), scratch.regionBlack, scratch.regionWhite);
+	}
+
+	/**
+	 * Get the number of positions solved since the solver was created
+	 *
+	 * @return	the number of positions
+	 */
+	public synchronized long getSolved() {
+		return this.solved;
+	}
+
+	/**
+	 * Get the board size this solver solves positions of
+	 *
+	 * @return	the board size
+	 */
+	public int getSize() {
+		return this.width;
+	}
+
+	/**
+	 * Forget every region value; results by position stay, as they do not
+	 * depend on how the values are stored
+	 */
+	private void clear() {
+		this.games = new CanonicalGames();
+		this.regionValues = new HashMap<RegionKey, Integer>();
+	}
+
+	/**
+	 * Subfunction of probe: the answer for a cached result
+	 */
+	private static int toResult(long result) {
+		if (result == WON) {
+			return Tablebase.WIN;
+		} else if (result == LOST) {
+			return Tablebase.LOSS;
+		}
+		return Tablebase.UNKNOWN;
+	}
+
+	/**
+	 * Work out the value of a position as the sum of its regions
+	 *
+	 * @param black	the black chips
+	 * @param white	the white chips
+	 * @return		the value, with black as Left
+	 */
+	private int value(long black, long white) {
+		long[] regionBlack = new long[Long.SIZE];
+		long[] regionWhite = new long[Long.SIZE];
+		int regions = this.decompose(black, white, regionBlack, regionWhite);
+		int sum = CanonicalGames.ZERO;
+		for (int i = 0; i < regions; i++) {
+			sum = this.games.add(sum, this.regionValue(regionBlack[i], regionWhite[i]));
+		}
+		return sum;
+	}
+
+	/**
+	 * Work out the value of one region, or look it up if a region of the
+	 * same shape was seen before
+	 *
+	 * @param black	the black chips of the region
+	 * @param white	the white chips of the region
+	 * @return		the value, with black as Left
+	 */
+	private int regionValue(long black, long white) {
+		if (black == 0 || white == 0) {
+			/* nobody can ever move */
+			return CanonicalGames.ZERO;
+		}
+		RegionKey key = this.keyOf(black, white);
+		Integer known = this.regionValues.get(key);
+		if (known != null) {
+			return known;
+		}
+
+		Board board = new Board(this.width);
+		int[] moves = new int[Moves.MAX_MOVES];
+		Undo undo = new Undo();
+		int[][] options = new int[2][];
+		for (int side = 0; side < 2; side++) {
+			board.setPosition(black, white, side == 0);
+			int count = board.generateMoves(moves, 0);
+			options[side] = new int[count];
+			for (int i = 0; i < count; i++) {
+				board.makeMove(moves[i], undo);
+				options[side][i] = this.value(board.getChips(Chip.BLACK), board.getChips(Chip.WHITE));
+				board.unmakeMove(undo);
+			}
+		}
+
+		int value = this.games.make(options[0], options[1]);
+		this.regionValues.put(key, value);
+		return value;
+	}
+
+	/**
+	 * Split chips into regions that can never interact: start from groups of
+	 * chips touching side by side, and merge groups until the footprint of
+	 * each group neither overlaps nor touches that of any other
+	 *
+	 * @param black			the black chips
+	 * @param white			the white chips
+	 * @param regionBlack	filled in with the black chips of each region
+	 * @param regionWhite	filled in with the white chips of each region
+	 * @return				the number of regions
+	 */
+	private int decompose(long black, long white, long[] regionBlack, long[] regionWhite) {
+		Scratch scratch = this.scratch.get();
+		long[] groups = scratch.groups;
+		long[] footprints = scratch.footprints;
+		int count = 0;
+		for (long left = black | white; left != 0; count++) {
+			long group = left & -left;
+			for (long grown = group; (grown = this.grow(group) & left) != group; ) {
+				group = grown;
+			}
+			groups[count] = group;
+			left &= ~group;
+		}
+
+		for (int i = 0; i < count; i++) {
+			footprints[i] = this.footprint(groups[i], black, white);
+		}
+		boolean merged = true;
+		while (merged) {
+			merged = false;
+			for (int i = 0; i < count && !merged; i++) {
+				long zone = this.grow(footprints[i]);
+				for (int j = i + 1; j < count && !merged; j++) {
+					if ((zone & footprints[j]) != 0) {
+						groups[i] |= groups[j];
+						groups[j] = groups[--count];
+						footprints[j] = footprints[count];
+						footprints[i] = this.footprint(groups[i], black, white);
+						merged = true;
+					}
+				}
+			}
+		}
+
+		for (int i = 0; i < count; i++) {
+			regionBlack[i] = groups[i] & black;
+			regionWhite[i] = groups[i] & white;
+		}
+		return count;
+	}
+
+	/**
+	 * Subfunction of decompose: the squares the chips of a group can ever
+	 * reach, if no other chips get in the way
+	 *
+	 * @param group	the squares of the group
+	 * @param black	the black chips
+	 * @param white	the white chips
+	 * @return		the footprint
+	 */
+	private long footprint(long group, long black, long white) {
+		int blackJumps = Math.min(Long.bitCount(group & white), this.width - 1);
+		int whiteJumps = Math.min(Long.bitCount(group & black), this.width - 1);
+		long footprint = 0;
+		for (long chips = group & black; chips != 0; chips &= chips - 1) {
+			footprint |= this.balls[Long.numberOfTrailingZeros(chips)][blackJumps];
+		}
+		for (long chips = group & white; chips != 0; chips &= chips - 1) {
+			footprint |= this.balls[Long.numberOfTrailingZeros(chips)][whiteJumps];
+		}
+		return footprint;
+	}
+
+	/**
+	 * Subfunction of probe: whether chips all touch side by side, and so are
+	 * one region whatever their footprints; cheaper than splitting them
+	 *
+	 * @param chips	the chips
+	 * @return		true if the chips are one group
+	 */
+	private boolean isOneGroup(long chips) {
+		long group = chips & -chips;
+		for (long grown = group; (grown = this.grow(group) & chips) != group; ) {
+			group = grown;
+		}
+		return group == chips;
+	}
+
+	/**
+	 * Subfunction of decompose: a set of squares and the squares beside them
+	 */
+	private long grow(long set) {
+		return (set | set << this.width | set >>> this.width
+				| (set & this.notEast) << 1 | (set & this.notWest) >>> 1) & this.squares;
+	}
+
+	/**
+	 * Subfunction of regionValue: the shape of a region, the same for every
+	 * region that plays the same game up to moving, rotating or reflecting
+	 * it; board edges further from the chips than any chip can move are left out
+	 *
+	 * @param black	the black chips of the region
+	 * @param white	the white chips of the region
+	 * @return		the key to look the region's value up by
+	 */
+	private RegionKey keyOf(long black, long white) {
+		int top = this.width, bottom = 0, leftmost = this.width, rightmost = 0;
+		for (long chips = black | white; chips != 0; chips &= chips - 1) {
+			int sq = Long.numberOfTrailingZeros(chips);
+			top = Math.min(top, sq / this.width);
+			bottom = Math.max(bottom, sq / this.width);
+			leftmost = Math.min(leftmost, sq % this.width);
+			rightmost = Math.max(rightmost, sq % this.width);
+		}
+		int reach = 2 * Math.max(Long.bitCount(black), Long.bitCount(white));
+		int height = bottom - top + 1;
+		int breadth = rightmost - leftmost + 1;
+		int[] edges = { Math.min(top, reach), Math.min(this.width - 1 - bottom, reach),
+				Math.min(leftmost, reach), Math.min(this.width - 1 - rightmost, reach) };
+
+		RegionKey best = null;
+		for (int symmetry = 0; symmetry < 8; symmetry++) {
+			boolean transpose = (symmetry & 4) != 0;
+			boolean flipRows = (symmetry & 2) != 0;
+			boolean flipCols = (symmetry & 1) != 0;
+			int h = transpose ? breadth : height;
+			int w = transpose ? height : breadth;
+
+			/* edges in the order top, bottom, left, right after the symmetry */
+			int[] e = transpose ? new int[] { edges[2], edges[3], edges[0], edges[1] } : edges.clone();
+			if (flipRows) {
+				int t = e[0]; e[0] = e[1]; e[1] = t;
+			}
+			if (flipCols) {
+				int t = e[2]; e[2] = e[3]; e[3] = t;
+			}
+
+			long[] bits = new long[2];
+			long[] colors = { black, white };
+			for (int c = 0; c < 2; c++) {
+				for (long chips = colors[c]; chips != 0; chips &= chips - 1) {
+					int sq = Long.numberOfTrailingZeros(chips);
+					int r = sq / this.width - top;
+					int col = sq % this.width - leftmost;
+					if (transpose) {
+						int t = r; r = col; col = t;
+					}
+					if (flipRows) {
+						r = h - 1 - r;
+					}
+					if (flipCols) {
+						col = w - 1 - col;
+					}
+					bits[c] |= 1L << (r * w + col);
+				}
+			}
+
+			int shape = h | w << 4 | e[0] << 8 | e[1] << 12 | e[2] << 16 | e[3] << 20;
+			RegionKey key = new RegionKey(shape, bits[0], bits[1]);
+			if (best == null || key.compareTo(best) < 0) {
+				best = key;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Arrays one thread splits positions into regions with. decompose only
+	 * needs them while it runs; probe keeps the regions it gets until it has
+	 * added them up, so the values of the regions, which split positions
+	 * again, use arrays of their own.
+	 */
+	private static class Scratch {
+
+		private long[] groups = new long[Long.SIZE];
+		private long[] footprints = new long[Long.SIZE];
+		private long[] regionBlack = new long[Long.SIZE];
+		private long[] regionWhite = new long[Long.SIZE];
+
+	}
+
+	/**
+	 * Shape of a region: the size of its bounding box, how far the board
+	 * edges are from it, and its chips inside the box
+	 */
+	private static class RegionKey implements Comparable<RegionKey> {
+
+		private int shape;
+		private long black;
+		private long white;
+
+		RegionKey(int shape, long black, long white) {
+			this.shape = shape;
+			this.black = black;
+			this.white = white;
+		}
+
+		@Override
+		public int compareTo(RegionKey other) {
+			if (this.shape != other.shape) {
+				return Integer.compare(this.shape, other.shape);
+			} else if (this.black != other.black) {
+				return Long.compareUnsigned(this.black, other.black);
+			}
+			return Long.compareUnsigned(this.white, other.white);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof RegionKey)) {
+				return false;
+			}
+			RegionKey other = (RegionKey) obj;
+			return this.shape == other.shape && this.black == other.black && this.white == other.white;
+		}
+
+		@Override
+		public int hashCode() {
+			long h = this.black * 0x9E3779B97F4A7C15L ^ this.white * 0xC2B2AE3D27D4EB4FL;
+			return (int) (h ^ (h >>> 32)) ^ this.shape;
+		}
+
+	}
+
+}
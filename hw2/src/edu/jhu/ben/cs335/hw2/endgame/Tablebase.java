@@ -0,0 +1,158 @@
+package edu.jhu.ben.cs335.hw2.endgame;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import edu.jhu.ben.cs335.hw2.board.Board;
+import edu.jhu.ben.cs335.hw2.board.Chip;
+
+/**
+ * Read-only endgame tablebase for one board size, memory-mapped from a file
+ * written by TablebaseBuilder.
+ *
+ * The tablebase covers every position past the opening with at most a given
+ * number of chips, and holds one bit per position: whether the side to move
+ * wins with perfect play. Konane has no draws, so that is the exact result.
+ * The file is a HEADER_BYTES header followed by the bits, 64 to a long, in
+ * the order of TablebaseIndex. Several searches and threads may share one
+ * tablebase.
+ *
+ * @author Zhihao Cao
+ */
+public class Tablebase {
+
+	/**
+	 * results of probe, for the side to move
+	 */
+	public static final int LOSS = -1;
+	public static final int UNKNOWN = 0;
+	public static final int WIN = 1;
+
+	/**
+	 * first four bytes of every tablebase file: "KNTB"
+	 */
+	public static final int MAGIC = 0x4b4e5442;
+
+	/**
+	 * version of the file layout, stored after the magic number
+	 */
+	public static final int VERSION = 1;
+
+	/**
+	 * bytes before the first word of bits
+	 */
+	public static final int HEADER_BYTES = 16;
+
+	/**
+	 * system property naming the directory tablebases are kept in
+	 */
+	public static final String DIRECTORY_PROPERTY = "konane.tablebase.dir";
+
+	/**
+	 * directory tablebases are kept in when the property is not set; relative
+	 * to src/, where the Makefile runs the game
+	 */
+	public static final String DEFAULT_DIRECTORY = "../tablebase";
+
+	private TablebaseIndex index;
+	private ByteBuffer bits;
+
+	/**
+	 * Map a tablebase file into memory
+	 *
+	 * @param path	the tablebase file
+	 * @throws IOException	if the file cannot be read or is not a tablebase
+	 */
+	public Tablebase(Path path) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			long length = channel.size();
+			if (length < HEADER_BYTES) {
+				throw new IOException(path + " is not a tablebase");
+			}
+			/* the mapping stays valid after the channel is closed */
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+			if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+				throw new IOException(path + " is not a tablebase");
+			}
+			this.index = new TablebaseIndex(buffer.get(8), buffer.get(9));
+			if (HEADER_BYTES + this.index.getBits() / 8 != length) {
+				throw new IOException(path + " is truncated");
+			}
+			this.bits = buffer;
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Get the file the tablebase for a board size is kept in
+	 *
+	 * @param size	the board size
+	 * @return		the tablebase file, which need not exist
+	 */
+	public static Path pathFor(int size) {
+		String directory = System.getProperty(DIRECTORY_PROPERTY, DEFAULT_DIRECTORY);
+		return new File(directory, "konane-" + size + ".tb").toPath();
+	}
+
+	/**
+	 * Open the tablebase for a board size, if there is one
+	 *
+	 * @param size	the board size
+	 * @return		the tablebase, or null if its file is missing or unreadable
+	 */
+	public static Tablebase open(int size) {
+		Path path = pathFor(size);
+		if (!path.toFile().isFile()) {
+			return null;
+		}
+		try {
+			return new Tablebase(path);
+		} catch (IOException e) {
+			System.err.println("Could not open tablebase: " + e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Look up the result of a position
+	 *
+	 * @param game	the gameboard
+	 * @return		WIN or LOSS for the side to move, or UNKNOWN if the position is not covered
+	 */
+	public int probe(Board game) {
+		if (game.getTurn() < 2 || game.getSize() != this.index.getSize()) {
+			return UNKNOWN;
+		}
+		long bit = this.index.index(game.getChips(Chip.BLACK), game.getChips(Chip.WHITE), game.isBlackToPlay());
+		if (bit == TablebaseIndex.NOT_COVERED) {
+			return UNKNOWN;
+		}
+		long word = this.bits.getLong(HEADER_BYTES + (int) (bit >>> 6) * 8);
+		return (word >>> (bit & 63) & 1) != 0 ? WIN : LOSS;
+	}
+
+	/**
+	 * Get the board size the tablebase was built for
+	 *
+	 * @return	the board size
+	 */
+	public int getSize() {
+		return this.index.getSize();
+	}
+
+	/**
+	 * Get the most chips a position the tablebase covers has
+	 *
+	 * @return	the number of chips
+	 */
+	public int getMaxChips() {
+		return this.index.getMaxChips();
+	}
+
+}
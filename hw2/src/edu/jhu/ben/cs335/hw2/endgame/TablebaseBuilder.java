@@ -0,0 +1,213 @@
+package edu.jhu.ben.cs335.hw2.endgame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import edu.jhu.ben.cs335.hw2.board.Board;
+import edu.jhu.ben.cs335.hw2.board.Chip;
+import edu.jhu.ben.cs335.hw2.board.Moves;
+import edu.jhu.ben.cs335.hw2.board.Undo;
+
+/**
+ * Retrograde solver that builds the endgame tablebase for a board size.
+ *
+ * Every move past the opening captures at least one chip, so the positions
+ * a position leads to all have fewer chips. Solving the positions in order
+ * of chip count therefore finds every successor already solved: the side to
+ * move wins if some move leads to a loss for the other side. Positions with
+ * the same number of chips do not depend on each other, so each chip count
+ * is split into chunks that are solved in parallel.
+ * Usage: TablebaseBuilder size maxChips [threads]
+ *
+ * @author Zhihao Cao
+ */
+public class TablebaseBuilder {
+
+	/**
+	 * chip placements solved by one task; two positions each, so a chunk
+	 * fills whole 64-bit words
+	 */
+	private static final int CHUNK = 4096;
+
+	private TablebaseIndex index;
+	private long[] bits;
+	private int threads;
+
+	/**
+	 * Create a TablebaseBuilder
+	 *
+	 * @param size		the board size
+	 * @param maxChips	most chips, of both colors together, in a covered position
+	 * @param threads	number of threads to solve with
+	 */
+	public TablebaseBuilder(int size, int maxChips, int threads) {
+		this.index = new TablebaseIndex(size, maxChips);
+		this.bits = new long[(int) (this.index.getBits() >>> 6)];
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * Solve every covered position
+	 *
+	 * @return	whether every position was solved; if not, the table is
+	 *			incomplete and must not be written
+	 */
+	public boolean solve() {
+		ExecutorService pool = Executors.newFixedThreadPool(this.threads, new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "konane-tablebase");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		int half = this.index.getHalf();
+		try {
+			for (int chips = 0; chips <= this.index.getMaxChips(); chips++) {
+				long startTime = System.nanoTime();
+				ArrayList<Future<?>> running = new ArrayList<Future<?>>();
+				long positions = 0;
+				for (int blackChips = 0; blackChips <= chips; blackChips++) {
+					final int b = blackChips;
+					final int w = chips - blackChips;
+					if (b > half || w > half) {
+						continue;
+					}
+					final long placements = this.index.layerSize(b, w);
+					positions += placements * 2;
+					for (long first = 0; first < placements; first += CHUNK) {
+						final long from = first;
+						final long to = Math.min(placements, first + CHUNK);
+						running.add(pool.submit(new Runnable() {
+							public void run() {
+								solve(b, w, from, to);
+							}
+						}));
+					}
+				}
+				for (Future<?> chunk : running) {
+					chunk.get();
+				}
+				System.out.println(chips + " chips: " + positions + " positions in "
+						+ ((System.nanoTime() - startTime) / 1e9) + "s");
+			}
+		} catch (InterruptedException e) {
+			System.err.println("Interrupted while solving");
+			Thread.currentThread().interrupt();
+			return false;
+		} catch (ExecutionException e) {
+			System.err.println("Caught an exception: \n\t" + e.getCause().toString());
+			return false;
+		} finally {
+			pool.shutdown();
+		}
+		return true;
+	}
+
+	/**
+	 * Subfunction of solve: solve a chunk of a layer, both sides to move
+	 *
+	 * @param blackChips	number of black chips in the layer
+	 * @param whiteChips	number of white chips in the layer
+	 * @param from			first placement of the chunk
+	 * @param to			placement after the last one of the chunk
+	 */
+	private void solve(int blackChips, int whiteChips, long from, long to) {
+		Board game = new Board(this.index.getSize());
+		int[] moves = new int[Moves.MAX_MOVES];
+		Undo undo = new Undo();
+		long offset = this.index.offset(blackChips, whiteChips);
+		for (long placement = from; placement < to; placement++) {
+			long black = this.index.chipsOf(placement, blackChips, whiteChips, 0);
+			long white = this.index.chipsOf(placement, blackChips, whiteChips, 1);
+			for (int side = 0; side < 2; side++) {
+				game.setPosition(black, white, side == 0);
+				int count = game.generateMoves(moves, 0);
+				boolean win = false;
+				for (int i = 0; i < count && !win; i++) {
+					game.makeMove(moves[i], undo);
+					long next = this.index.index(game.getChips(Chip.BLACK), game.getChips(Chip.WHITE), game.isBlackToPlay());
+					win = (this.bits[(int) (next >>> 6)] >>> (next & 63) & 1) == 0;
+					game.unmakeMove(undo);
+				}
+				if (win) {
+					long bit = offset + placement * 2 + side;
+					this.bits[(int) (bit >>> 6)] |= 1L << (bit & 63);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Write the tablebase
+	 *
+	 * @param path	the tablebase file
+	 * @throws IOException	if the file cannot be written
+	 */
+	public void write(Path path) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(Tablebase.HEADER_BYTES + this.bits.length * 8);
+		buffer.putInt(Tablebase.MAGIC);
+		buffer.putInt(Tablebase.VERSION);
+		buffer.put((byte) this.index.getSize());
+		buffer.put((byte) this.index.getMaxChips());
+		buffer.putShort((short) 0);
+		buffer.putInt(0);
+		for (long word : this.bits) {
+			buffer.putLong(word);
+		}
+		buffer.flip();
+
+		if (path.getParent() != null) {
+			Files.createDirectories(path.getParent());
+		}
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		try {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		} finally {
+			channel.close();
+		}
+	}
+
+	public static void main(String[] args) {
+		if (args.length < 2) {
+			System.err.println("usage: TablebaseBuilder size maxChips [threads]");
+			System.exit(1);
+		}
+		int size = Integer.parseInt(args[0]);
+		int maxChips = Integer.parseInt(args[1]);
+		int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+		TablebaseBuilder builder = new TablebaseBuilder(size, maxChips, threads);
+		Path path = Tablebase.pathFor(size);
+		if (!builder.solve()) {
+			/* the search trusts a tablebase as exact, so leave none rather than a wrong one */
+			System.err.println("Tablebase not written");
+			System.exit(1);
+		}
+		try {
+			builder.write(path);
+		} catch (IOException e) {
+			System.err.println("Caught an exception: \n\t" + e.toString());
+			try {
+				Files.deleteIfExists(path);
+			} catch (IOException f) {
+				System.err.println("Could not delete " + path + ": " + f.toString());
+			}
+			System.exit(1);
+		}
+		System.out.println("Wrote " + (builder.index.getBits() / 8) + " bytes to " + path);
+	}
+
+}
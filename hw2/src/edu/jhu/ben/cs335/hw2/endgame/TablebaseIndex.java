@@ -0,0 +1,233 @@
+package edu.jhu.ben.cs335.hw2.endgame;
+
+/**
+ * Numbering of the positions a tablebase covers.
+ *
+ * After the opening removals chips only ever jump two squares, so a chip
+ * stays on the color of square it started on: black chips on the squares
+ * with row+col even, white chips on the others. A position is thus a subset
+ * of each color's squares plus the side to move. Positions are grouped into
+ * layers by their number of black and white chips, and numbered within a
+ * layer by the colex ranks of the two subsets; every layer starts on a
+ * 64-bit word, so that separate layers and chunks of them can be filled in
+ * by separate threads.
+ *
+ * @author Zhihao Cao
+ */
+class TablebaseIndex {
+
+	/**
+	 * returned by index for positions the tablebase does not cover
+	 */
+	static final long NOT_COVERED = -1;
+
+	/**
+	 * binomial coefficients, up to the number of squares of one color
+	 */
+	private static final long[][] CHOOSE = new long[33][33];
+
+	static {
+		for (int n = 0; n < CHOOSE.length; n++) {
+			CHOOSE[n][0] = 1;
+			for (int k = 1; k <= n; k++) {
+				CHOOSE[n][k] = CHOOSE[n - 1][k - 1] + CHOOSE[n - 1][k];
+			}
+		}
+	}
+
+	private int size;
+	private int maxChips;
+	private int half;
+	private int[] rankOf;
+	private int[] blackSquares;
+	private int[] whiteSquares;
+	private long[] colorSquares;
+	private long[][] offsets;
+	private long bits;
+
+	/**
+	 * Number the positions of a board size with at most a given number of chips
+	 *
+	 * @param size		the board size
+	 * @param maxChips	most chips, of both colors together, in a covered position
+	 */
+	TablebaseIndex(int size, int maxChips) {
+		this.size = size;
+		this.maxChips = maxChips;
+		this.half = size * size / 2;
+		this.rankOf = new int[size * size];
+		this.blackSquares = new int[this.half];
+		this.whiteSquares = new int[this.half];
+		this.colorSquares = new long[2];
+		int blacks = 0;
+		int whites = 0;
+		for (int square = 0; square < size * size; square++) {
+			if ((square / size + square % size) % 2 == 0) {
+				this.colorSquares[0] |= 1L << square;
+				this.rankOf[square] = blacks;
+				this.blackSquares[blacks++] = square;
+			} else {
+				this.colorSquares[1] |= 1L << square;
+				this.rankOf[square] = whites;
+				this.whiteSquares[whites++] = square;
+			}
+		}
+
+		/* layers in order of chip count, so that a builder can fill them in that order */
+		this.offsets = new long[this.half + 1][this.half + 1];
+		long offset = 0;
+		for (int chips = 0; chips <= maxChips; chips++) {
+			for (int blackChips = 0; blackChips <= chips; blackChips++) {
+				int whiteChips = chips - blackChips;
+				if (blackChips > this.half || whiteChips > this.half) {
+					continue;
+				}
+				this.offsets[blackChips][whiteChips] = offset;
+				offset += (this.layerSize(blackChips, whiteChips) * 2 + 63) & ~63L;
+			}
+		}
+		this.bits = offset;
+	}
+
+	/**
+	 * Get the number of a position
+	 *
+	 * @param black			the squares holding black chips
+	 * @param white			the squares holding white chips
+	 * @param blackToPlay	whether black is to move
+	 * @return				the bit index of the position, or NOT_COVERED
+	 */
+	long index(long black, long white, boolean blackToPlay) {
+		int blackChips = Long.bitCount(black);
+		int whiteChips = Long.bitCount(white);
+		if (blackChips + whiteChips > this.maxChips) {
+			return NOT_COVERED;
+		}
+		long blackRank = this.rank(black, 0);
+		long whiteRank = this.rank(white, 1);
+		if (blackRank < 0 || whiteRank < 0) {
+			return NOT_COVERED;
+		}
+		long position = blackRank * CHOOSE[this.half][whiteChips] + whiteRank;
+		return this.offsets[blackChips][whiteChips] + position * 2 + (blackToPlay ? 0 : 1);
+	}
+
+	/**
+	 * Get the bit index of the first position of a layer
+	 *
+	 * @param blackChips	number of black chips
+	 * @param whiteChips	number of white chips
+	 * @return				the bit index, a multiple of 64
+	 */
+	long offset(int blackChips, int whiteChips) {
+		return this.offsets[blackChips][whiteChips];
+	}
+
+	/**
+	 * Get the number of chip placements in a layer; each has two positions,
+	 * one for either side to move
+	 *
+	 * @param blackChips	number of black chips
+	 * @param whiteChips	number of white chips
+	 * @return				the number of placements
+	 */
+	long layerSize(int blackChips, int whiteChips) {
+		return CHOOSE[this.half][blackChips] * CHOOSE[this.half][whiteChips];
+	}
+
+	/**
+	 * Get the chips of one color of a placement in a layer
+	 *
+	 * @param placement		number of the placement within its layer
+	 * @param blackChips	number of black chips
+	 * @param whiteChips	number of white chips
+	 * @param color			0 for black, 1 for white
+	 * @return				the squares holding the chips, as a bitboard
+	 */
+	long chipsOf(long placement, int blackChips, int whiteChips, int color) {
+		long perBlack = CHOOSE[this.half][whiteChips];
+		if (color == 0) {
+			return this.unrank(placement / perBlack, blackChips, this.blackSquares);
+		}
+		return this.unrank(placement % perBlack, whiteChips, this.whiteSquares);
+	}
+
+	/**
+	 * Get the number of bits a table needs
+	 *
+	 * @return	the number of bits, a multiple of 64
+	 */
+	long getBits() {
+		return this.bits;
+	}
+
+	/**
+	 * Get the number of squares of one color
+	 *
+	 * @return	half the number of squares
+	 */
+	int getHalf() {
+		return this.half;
+	}
+
+	/**
+	 * Get the board size
+	 *
+	 * @return	the board size
+	 */
+	int getSize() {
+		return this.size;
+	}
+
+	/**
+	 * Get the most chips a covered position has
+	 *
+	 * @return	the number of chips
+	 */
+	int getMaxChips() {
+		return this.maxChips;
+	}
+
+	/**
+	 * Subfunction of index: colex rank of the chips of one color among the
+	 * squares of their color
+	 *
+	 * @param chips	the squares holding the chips
+	 * @param color	0 for black, 1 for white
+	 * @return		the rank, or -1 if a chip is on a square of the other color
+	 */
+	private long rank(long chips, int color) {
+		if ((chips & ~this.colorSquares[color]) != 0) {
+			return -1;
+		}
+		long rank = 0;
+		int i = 1;
+		for (; chips != 0; chips &= chips - 1) {
+			rank += CHOOSE[this.rankOf[Long.numberOfTrailingZeros(chips)]][i++];
+		}
+		return rank;
+	}
+
+	/**
+	 * Subfunction of chipsOf: the subset of squares with a given colex rank
+	 *
+	 * @param rank		the rank
+	 * @param chips		number of squares in the subset
+	 * @param squares	the squares of the color, in order
+	 * @return			the subset, as a bitboard
+	 */
+	private long unrank(long rank, int chips, int[] squares) {
+		long board = 0;
+		int p = this.half - 1;
+		for (int i = chips; i > 0; i--) {
+			while (CHOOSE[p][i] > rank) {
+				p--;
+			}
+			rank -= CHOOSE[p][i];
+			board |= 1L << squares[p];
+			p--;
+		}
+		return board;
+	}
+
+}
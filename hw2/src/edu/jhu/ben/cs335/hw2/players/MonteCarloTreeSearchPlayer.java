@@ -0,0 +1,102 @@
+package edu.jhu.ben.cs335.hw2.players;
+
+import java.util.ArrayList;
+
+import edu.jhu.ben.cs335.hw2.board.Board;
+import edu.jhu.ben.cs335.hw2.board.Chip;
+import edu.jhu.ben.cs335.hw2.board.Move;
+import edu.jhu.ben.cs335.hw2.search.MonteCarloTreeSearch;
+import edu.jhu.ben.cs335.hw2.search.TimeManager;
+
+/** time bounded Monte Carlo tree search Player class for Konane game
+*
+* @author Zhihao Cao
+*/
+public class MonteCarloTreeSearchPlayer extends Player {
+
+	private Chip player;
+	private TimeManager time;
+	private int threads;
+	private MonteCarloTreeSearch search;
+	private long playouts;
+	private long playoutsThisTurn;
+
+	/**
+	 * Create a MonteCarloTreeSearchPlayer
+	 *
+	 * @param player	the color of this player
+	 * @param maxTime	time bound, in seconds
+	 */
+	public MonteCarloTreeSearchPlayer(Chip player, double maxTime) {
+		this.player = player;
+		this.time = new TimeManager(maxTime);
+		this.threads = 1;
+		this.playouts = 0;
+		this.playoutsThisTurn = 0;
+	}
+
+	/**
+	 * Set a time budget for the rest of the game, to be shared out between
+	 * this player's remaining moves; no move takes longer than the time bound
+	 *
+	 * @param seconds	the budget in seconds, or a negative number for none
+	 */
+	public void setGameTime(double seconds) {
+		this.time.setGameTime(seconds);
+	}
+
+	/**
+	 * Set the number of threads to search with; they all work on one tree
+	 *
+	 * @param threads	number of search threads, at least 1
+	 */
+	public void setThreads(int threads) {
+		this.threads = Math.max(1, threads);
+		this.shutdown();
+	}
+
+	/**
+	 * Release the search threads; the next move creates them again
+	 */
+	@Override
+	public void shutdown() {
+		if (this.search != null) {
+			this.search.shutdown();
+			this.search = null;
+		}
+	}
+
+	/**
+	 * Get a best move determined by time bounded Monte Carlo tree search
+	 *
+	 * @param game the current game state
+	 */
+	@Override
+	public Move getMove(Board game) {
+
+		this.time.startMove(game);
+		ArrayList<Move> moveList = game.getLegalMoves();
+		/* tell the player what her options are */
+		System.out.println("Turn " + game.getTurn() + ", legal moves (" + moveList.size() + "): ");
+		for(Move m : moveList) {
+			System.out.println(m.toString());
+		}
+
+		if (this.search == null) {
+			this.search = new MonteCarloTreeSearch(this.threads);
+		}
+		Move ret = this.search.search(game, this.time);
+		this.time.endMove();
+		double duration = this.time.getElapsed();
+
+		this.playoutsThisTurn = this.search.getPlayouts();
+		this.playouts += this.playoutsThisTurn;
+		System.out.println("Maximum depth reached at this turn: " + this.search.getMaximumDepthReached());
+		System.out.println("Playouts at this turn: " + this.playoutsThisTurn);
+		System.out.println("Total playouts: " + this.playouts);
+		System.out.println("Estimated chance of winning for " + this.player + ": " + this.search.getWinRate());
+		System.out.println("Time to decide on a move: " + duration);
+		return ret;
+	}
+
+}
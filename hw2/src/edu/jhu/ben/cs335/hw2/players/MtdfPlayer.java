@@ -0,0 +1,26 @@
+package edu.jhu.ben.cs335.hw2.players;
+
+import edu.jhu.ben.cs335.hw2.board.Chip;
+
+/** time bounded iterative deepening Player class for Konane game that searches
+* each depth with MTD(f): null window alpha-beta searches backed by the
+* transposition table, starting from the score of the depth before last, since
+* odd and even depths score differently
+*
+* @author Zhihao Cao
+*/
+public class MtdfPlayer extends TimeBoundedIterativeDeepeningAlphaBetaPlayer {
+
+	/**
+	 * Create a MtdfPlayer
+	 * 
+	 * @param player		the color of this player
+	 * @param maxTime		time bound
+	 * @param moveOrdering	whether this player need move ordering
+	 */
+	public MtdfPlayer(Chip player, double maxTime, boolean moveOrdering) {
+		super(player, maxTime, moveOrdering);
+		this.setMtdf(true);
+	}
+
+}
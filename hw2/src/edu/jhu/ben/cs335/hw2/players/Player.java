@@ -16,4 +16,11 @@ public abstract class Player {
    */
   public abstract Move getMove(Board game);
 
+  /**
+   * Release any threads the player keeps between moves; drivers call this
+   * once they are done with the player
+   */
+  public void shutdown() {
+  }
+
 }
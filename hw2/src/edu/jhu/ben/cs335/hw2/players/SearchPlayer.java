@@ -0,0 +1,346 @@
+package edu.jhu.ben.cs335.hw2.players;
+
+import java.util.ArrayList;
+
+import edu.jhu.ben.cs335.hw2.board.Board;
+import edu.jhu.ben.cs335.hw2.board.Chip;
+import edu.jhu.ben.cs335.hw2.board.Move;
+import edu.jhu.ben.cs335.hw2.board.Moves;
+import edu.jhu.ben.cs335.hw2.book.OpeningBook;
+import edu.jhu.ben.cs335.hw2.endgame.DecompositionSolver;
+import edu.jhu.ben.cs335.hw2.endgame.Tablebase;
+import edu.jhu.ben.cs335.hw2.search.AlphaBetaSearch;
+import edu.jhu.ben.cs335.hw2.search.LazySmp;
+import edu.jhu.ben.cs335.hw2.search.Ponderer;
+import edu.jhu.ben.cs335.hw2.search.SearchListener;
+import edu.jhu.ben.cs335.hw2.search.SearchStats;
+import edu.jhu.ben.cs335.hw2.search.TimeManager;
+import edu.jhu.ben.cs335.hw2.search.TranspositionTable;
+
+/** Minimax Player class for Konane game, on AlphaBetaSearch
+ *
+ * The Minimax and alpha-beta players are this player with different
+ * parts: with or without pruning and move ordering, searching to a fixed
+ * depth or by iterative deepening until the time is up. Everything else
+ * (transposition table, threads, pondering, opening book, endgame solvers,
+ * statistics) is set up here once for all of them.
+ *
+ * @author Zhihao Cao
+ */
+public abstract class SearchPlayer extends Player {
+
+	/**
+	 * default memory budget of the transposition table, in megabytes
+	 */
+	public static final int DEFAULT_TABLE_MEGABYTES = 16;
+
+	private int maximumDepthReached;
+	private int maxDepth;
+	private TimeManager time;
+	private Chip player;
+	private long nodesExplored;
+	private boolean pruning;
+	private boolean moveOrdering;
+	private TranspositionTable table;
+	private int threads;
+	private AlphaBetaSearch search;
+	private LazySmp helpers;
+	private boolean pondering;
+	private Ponderer ponderer;
+	private OpeningBook book;
+	private Tablebase tablebase;
+	private DecompositionSolver decomposition;
+	private boolean mtdf;
+	private boolean lateMoveReductions;
+	private boolean nullMovePruning;
+	private SearchListener listener;
+
+	/**
+	 * Create a SearchPlayer; with pruning it has a transposition table of
+	 * the default size, without it none
+	 *
+	 * @param player		the color of this player
+	 * @param maxDepth		depth bound, or 0 to search by iterative deepening
+	 * @param maxTime		time bound in seconds, for iterative deepening
+	 * @param pruning		whether to prune with alpha-beta
+	 * @param moveOrdering	whether to order moves by killer moves and history scores
+	 */
+	protected SearchPlayer(Chip player, int maxDepth, double maxTime, boolean pruning, boolean moveOrdering) {
+		this.player = player;
+		this.maxDepth = maxDepth;
+		this.time = maxDepth > 0 ? null : new TimeManager(maxTime);
+		this.pruning = pruning;
+		this.moveOrdering = moveOrdering;
+		this.nodesExplored = 0;
+		this.maximumDepthReached = 0;
+		this.table = pruning ? new TranspositionTable(DEFAULT_TABLE_MEGABYTES) : null;
+		this.threads = 1;
+		this.pondering = false;
+		AlphaBetaSearch.loadStatistics();
+	}
+
+	/**
+	 * Set the memory budget of the transposition table; 0 turns the table off
+	 *
+	 * @param megabytes	memory budget in megabytes
+	 */
+	public void setTranspositionTableSize(int megabytes) {
+		this.table = megabytes > 0 ? new TranspositionTable(megabytes) : null;
+		this.discardSearch();
+	}
+
+	/**
+	 * Set a time budget for the rest of the game, to be shared out between
+	 * this player's remaining moves; no move takes longer than the time bound.
+	 * Players that search to a fixed depth ignore it.
+	 *
+	 * @param seconds	the budget in seconds, or a negative number for none
+	 */
+	public void setGameTime(double seconds) {
+		if (this.time != null) {
+			this.time.setGameTime(seconds);
+		}
+	}
+
+	/**
+	 * Set the number of threads to search with; helper threads share the
+	 * transposition table with the main search, so they need one to be useful
+	 *
+	 * @param threads	number of search threads, at least 1
+	 */
+	public void setThreads(int threads) {
+		this.threads = Math.max(1, threads);
+		this.discardSearch();
+	}
+
+	/**
+	 * Set whether to keep searching on the opponent's time, on the position
+	 * after the reply this player expects; pondering works through the
+	 * transposition table, so it needs one
+	 *
+	 * @param pondering	whether to ponder
+	 */
+	public void setPondering(boolean pondering) {
+		this.pondering = pondering;
+		this.discardSearch();
+	}
+
+	/**
+	 * Set whether to search each depth with MTD(f), a series of null window
+	 * searches closing in on the value, instead of one search with a wide
+	 * window; MTD(f) needs the transposition table
+	 *
+	 * @param mtdf	whether to use MTD(f)
+	 */
+	public void setMtdf(boolean mtdf) {
+		this.mtdf = mtdf;
+		this.discardSearch();
+	}
+
+	/**
+	 * Set whether to search moves that come late in the ordered move list
+	 * less deep at first, and at full depth only if they look better than
+	 * the moves before them
+	 *
+	 * @param lateMoveReductions	whether to reduce late moves
+	 */
+	public void setLateMoveReductions(boolean lateMoveReductions) {
+		this.lateMoveReductions = lateMoveReductions;
+		this.discardSearch();
+	}
+
+	/**
+	 * Set whether to cut off positions where even passing, searched less
+	 * deep, would be good enough; each such cutoff is verified with a
+	 * shallower search, since in Konane having to move can be the worst
+	 * that can happen
+	 *
+	 * @param nullMovePruning	whether to prune with null moves
+	 */
+	public void setNullMovePruning(boolean nullMovePruning) {
+		this.nullMovePruning = nullMovePruning;
+		this.discardSearch();
+	}
+
+	/**
+	 * Set the opening book to play from; positions found in it are not searched
+	 *
+	 * @param book	the book for the board size played on, or null for none
+	 */
+	public void setOpeningBook(OpeningBook book) {
+		this.book = book;
+	}
+
+	/**
+	 * Set the endgame tablebase to probe; positions it covers are scored
+	 * exactly instead of being searched further
+	 *
+	 * @param tablebase	the tablebase for the board size played on, or null for none
+	 */
+	public void setTablebase(Tablebase tablebase) {
+		this.tablebase = tablebase;
+		this.discardSearch();
+	}
+
+	/**
+	 * Set the endgame solver that splits positions into regions that never
+	 * interact; positions it solves are scored exactly instead of being
+	 * searched further
+	 *
+	 * @param decomposition	the solver for the board size played on, or null for none
+	 */
+	public void setDecompositionSolver(DecompositionSolver decomposition) {
+		this.decomposition = decomposition;
+		this.discardSearch();
+	}
+
+	/**
+	 * Set a listener to tell about the statistics of every iteration of the
+	 * main search, and of every move that was searched
+	 *
+	 * @param listener	the listener, or null for none
+	 */
+	public void setSearchListener(SearchListener listener) {
+		this.listener = listener;
+		if (this.search != null) {
+			this.search.setListener(listener);
+		}
+	}
+
+	/**
+	 * Get a best move determined by Minimax search, to a fixed depth or by
+	 * time bounded iterative deepening
+	 *
+	 * @param game the current game state
+	 */
+	@Override
+	public Move getMove(Board game) {
+
+		boolean predicted = this.ponderer != null && this.ponderer.stop(game);
+		if (this.time != null) {
+			this.time.startMove(game);
+		}
+		ArrayList<Move> moveList = game.getLegalMoves();
+		/* tell the player what her options are */
+		System.out.println("Turn " + game.getTurn() + ", legal moves (" + moveList.size() + "): ");
+		for(Move m : moveList) {
+			System.out.println(m.toString());
+		}
+
+		if (this.book != null) {
+			Move bookMove = this.book.probe(game);
+			if (bookMove != null) {
+				if (this.time != null) {
+					this.time.endMove();
+				}
+				System.out.println("Move found in opening book");
+				return bookMove;
+			}
+		}
+
+		if (this.table != null) {
+			this.table.newSearch();
+		}
+		this.prepareSearch();
+		long startTime = System.nanoTime();
+
+		if (this.helpers != null) {
+			this.helpers.start(game, this.time);
+		}
+		this.search.resetStatistics();
+		Move ret;
+		if (this.time == null) {
+			this.search.search(game, this.maxDepth);
+			ret = this.search.getBestMove();
+		} else {
+			this.search.setTimeManager(this.time);
+			ret = this.search.iterate(game, 1);
+		}
+		if (this.helpers != null) {
+			this.helpers.stop();
+		}
+		if (this.time != null) {
+			this.time.endMove();
+		}
+
+		long endTime = System.nanoTime();
+		double duration = ((double)(endTime - startTime)) / 1000000000.0;
+
+		SearchStats stats = this.search.getStatistics();
+		if (this.helpers != null) {
+			this.helpers.addStatistics(stats);
+		}
+		this.search.reportMove(stats);
+		this.nodesExplored += stats.getNodes();
+		this.maximumDepthReached += stats.getMaximumDepthReached();
+		System.out.println("Maximum depth reached at this turn: " + stats.getMaximumDepthReached());
+		System.out.println("Maximum depth reached from game start state: " + this.maximumDepthReached);
+		System.out.println("Nodes explored at this turn: " + stats.getNodes());
+		System.out.println("Total nodes explored: " + this.nodesExplored);
+		System.out.println("Time to decide on a move: " + duration);
+		if (this.ponderer != null) {
+			System.out.println("Opponent's move predicted: " + predicted);
+		}
+
+		if (this.ponderer != null && ret != null && this.search.getExpectedReply() != Moves.NONE) {
+			this.ponderer.start(game, game.pack(ret), this.search.getExpectedReply());
+		}
+		return ret;
+	}
+
+	/**
+	 * Stop pondering and helper threads; the next move creates them again
+	 */
+	@Override
+	public void shutdown() {
+		this.discardSearch();
+	}
+
+	/**
+	 * Create the search, and its helper threads if any, for the current settings
+	 */
+	private void prepareSearch() {
+		if (this.search == null) {
+			this.search = new AlphaBetaSearch(this.player, this.moveOrdering, this.table);
+			this.search.setPruning(this.pruning);
+			this.search.setTablebase(this.tablebase);
+			this.search.setDecompositionSolver(this.decomposition);
+			this.search.setMtdf(this.mtdf && this.table != null);
+			this.search.setLateMoveReductions(this.lateMoveReductions);
+			this.search.setNullMovePruning(this.nullMovePruning);
+			this.search.setListener(this.listener);
+			if (this.threads > 1) {
+				this.helpers = new LazySmp(this.threads, this.player, this.moveOrdering, this.table);
+				this.helpers.setPruning(this.pruning);
+				this.helpers.setTablebase(this.tablebase);
+				this.helpers.setDecompositionSolver(this.decomposition);
+				this.helpers.setLateMoveReductions(this.lateMoveReductions);
+				this.helpers.setNullMovePruning(this.nullMovePruning);
+			}
+			if (this.pondering && this.table != null) {
+				this.ponderer = new Ponderer(this.player, this.moveOrdering, this.table);
+				this.ponderer.setPruning(this.pruning);
+				this.ponderer.setTablebase(this.tablebase);
+				this.ponderer.setDecompositionSolver(this.decomposition);
+				this.ponderer.setLateMoveReductions(this.lateMoveReductions);
+				this.ponderer.setNullMovePruning(this.nullMovePruning);
+			}
+		}
+	}
+
+	/**
+	 * Drop the search after a change of settings; the next move creates a new one
+	 */
+	private void discardSearch() {
+		if (this.helpers != null) {
+			this.helpers.shutdown();
+		}
+		if (this.ponderer != null) {
+			this.ponderer.shutdown();
+		}
+		this.search = null;
+		this.helpers = null;
+		this.ponderer = null;
+	}
+
+}
@@ -0,0 +1,1010 @@
+package edu.jhu.ben.cs335.hw2.search;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import edu.jhu.ben.cs335.hw2.Node;
+import edu.jhu.ben.cs335.hw2.board.Board;
+import edu.jhu.ben.cs335.hw2.board.Chip;
+import edu.jhu.ben.cs335.hw2.board.Move;
+import edu.jhu.ben.cs335.hw2.board.Moves;
+import edu.jhu.ben.cs335.hw2.board.Undo;
+import edu.jhu.ben.cs335.hw2.endgame.DecompositionSolver;
+import edu.jhu.ben.cs335.hw2.endgame.Tablebase;
+
+/**
+ * Depth-bounded Minimax search with alpha-beta pruning for one player,
+ * written as negamax: every state is valued for the player to move there,
+ * which is also how the transposition table keeps its scores.
+ *
+ * This is the one search every Minimax player plays with. Its parts are
+ * chosen separately: pruning, which can be turned off for plain Minimax;
+ * move ordering; a fixed depth (search) or iterative deepening (iterate);
+ * and a time manager or stop flag to end the search.
+ *
+ * A search works on its own copy of the gameboard and keeps its own
+ * counters, so several of them can run at once on different threads; the
+ * only thing they share is the transposition table. Moves are searched
+ * packed, from a MoveStack, so that searching allocates nothing.
+ *
+ * Every move after the first at a node is searched with a null window
+ * (principal variation search) and only searched again with the full window
+ * if it turns out better. Iterative deepening also starts each iteration
+ * on the principal variation of the last one, inside an aspiration window
+ * around the last score that widens whenever the score falls outside it.
+ *
+ * Two selective features can be turned on: late-move reductions search
+ * moves that come late in the move list less deep at first, and verified
+ * null-move pruning cuts states off where passing would be good enough.
+ *
+ * With MTD(f) on, a search to a fixed depth is instead a series of null
+ * window searches that close in on the value from a first guess, the score
+ * of an earlier iteration; each one only has to prove the value above or
+ * below a single number, and the transposition table keeps what the earlier
+ * ones proved, so the series usually searches fewer nodes than one search
+ * with a wide window.
+ *
+ * @author Zhihao Cao
+ */
+public class AlphaBetaSearch {
+
+	/**
+	 * half-width of the first aspiration window, and the widest window tried
+	 * before falling back to a full one
+	 */
+	private static final int ASPIRATION_WINDOW = 4;
+	private static final int MAX_ASPIRATION_WINDOW = 256;
+
+	/**
+	 * plies a null move search is shallower than the moves it stands in for
+	 * would be searched
+	 */
+	private static final int NULL_MOVE_REDUCTION = 2;
+
+	/**
+	 * late-move reductions: least depth left at which moves are reduced,
+	 * place in the move list of the first move reduced by one ply, and of
+	 * the first move reduced by two
+	 */
+	private static final int LMR_MIN_DEPTH = 3;
+	private static final int LMR_FIRST_MOVE = 3;
+	private static final int LMR_DEEPER_MOVE = 8;
+
+	private Chip player;
+	private TranspositionTable table;
+	private MoveOrdering ordering;
+	private MoveStack stack;
+	private int maxDepth;
+	private long nodesExplored;
+	private int maximumDepthReached;
+	private long leafEvaluations;
+	private long expandedNodes;
+	private long betaCutoffs;
+	private long firstMoveCutoffs;
+	private long tableProbes;
+	private long tableHits;
+	private SearchStats stats;
+	private SearchStats totalStats;
+	private SearchListener listener;
+	private long iterationStart;
+	private long allocationStart;
+	private TimeManager time;
+	private AtomicBoolean stop;
+	private boolean aborted;
+	private int rootRotation;
+	private int score;
+	private int rootMove;
+	private int bestRootMove;
+	private Move bestMove;
+	private int[][] pv;
+	private int[] pvLength;
+	private int[] previousPv;
+	private int previousPvLength;
+	private boolean mtdf;
+	private int[] failHighPv;
+	private boolean pruning;
+	private boolean lateMoveReductions;
+	private boolean nullMovePruning;
+	private boolean[] nullMove;
+	private boolean followPv;
+	private Tablebase tablebase;
+	private DecompositionSolver decomposition;
+	private int solved;
+	private boolean gameOver;
+
+	/**
+	 * Create an AlphaBetaSearch
+	 *
+	 * @param player		the color of the player searching
+	 * @param moveOrdering	whether to order moves by killer moves and history scores
+	 * @param table			transposition table to use, or null
+	 */
+	public AlphaBetaSearch(Chip player, boolean moveOrdering, TranspositionTable table) {
+		this.player = player;
+		this.table = table;
+		this.ordering = moveOrdering ? new MoveOrdering() : null;
+		this.stack = new MoveStack();
+		this.time = null;
+		this.stop = null;
+		this.rootRotation = 0;
+		this.pv = new int[Moves.MAX_PLY + 1][Moves.MAX_PLY + 1];
+		this.pvLength = new int[Moves.MAX_PLY + 1];
+		this.previousPv = new int[Moves.MAX_PLY + 1];
+		this.previousPvLength = 0;
+		this.bestRootMove = Moves.NONE;
+		this.mtdf = false;
+		this.failHighPv = new int[Moves.MAX_PLY + 1];
+		this.pruning = true;
+		this.lateMoveReductions = false;
+		this.nullMovePruning = false;
+		this.nullMove = new boolean[Moves.MAX_PLY + 1];
+		this.stats = new SearchStats();
+		this.totalStats = new SearchStats();
+		this.listener = null;
+	}
+
+	/**
+	 * Load the statistics classes, Flight Recorder's and the JVM's thread
+	 * counters among them; the first use of each takes a good part of a
+	 * second, so players call this before their clock starts
+	 */
+	public static void loadStatistics() {
+		SearchStats.allocatedBytes();
+		SearchEvents.load();
+	}
+
+	/**
+	 * Set the clock that decides when searching stops; iterate() always
+	 * finishes its first iteration, so that it has a move to return
+	 *
+	 * @param time	the clock, already started for the current move, or null
+	 */
+	public void setTimeManager(TimeManager time) {
+		this.time = time;
+	}
+
+	/**
+	 * Set a flag that another thread raises to stop this search
+	 *
+	 * @param stop	the flag, or null
+	 */
+	public void setStopFlag(AtomicBoolean stop) {
+		this.stop = stop;
+	}
+
+	/**
+	 * Set how far to rotate the list of root moves before searching it, so
+	 * that searches running side by side start on different moves
+	 *
+	 * @param rootRotation	number of places to rotate by
+	 */
+	public void setRootRotation(int rootRotation) {
+		this.rootRotation = rootRotation;
+	}
+
+	/**
+	 * Set whether to prune with alpha-beta; without pruning every state is
+	 * searched with a full window, as plain Minimax searches it, and the
+	 * windowed features (aspiration windows, MTD(f), late-move reductions
+	 * and null moves) have no effect
+	 *
+	 * @param pruning	whether to prune
+	 */
+	public void setPruning(boolean pruning) {
+		this.pruning = pruning;
+	}
+
+	/**
+	 * Set whether to search to each depth with MTD(f) rather than with one
+	 * search inside an aspiration window; MTD(f) relies on the transposition
+	 * table to remember what each of its searches proved
+	 *
+	 * @param mtdf	whether to use MTD(f)
+	 */
+	public void setMtdf(boolean mtdf) {
+		this.mtdf = mtdf;
+	}
+
+	/**
+	 * Set whether to search moves that come late in the ordered move list
+	 * less deep at first, and at full depth only if they turn out better
+	 * than the moves before them
+	 *
+	 * @param lateMoveReductions	whether to reduce late moves
+	 */
+	public void setLateMoveReductions(boolean lateMoveReductions) {
+		this.lateMoveReductions = lateMoveReductions;
+	}
+
+	/**
+	 * Set whether to try passing before searching a state's moves, and cut
+	 * the state off if even a pass, searched less deep, is good enough.
+	 * Konane has zugzwangs, where having to move is the worst that can
+	 * happen, so a pass that seems good enough is verified by searching the
+	 * state one ply less deep instead of cutting it off at once, and the
+	 * state is searched at full depth again if that does not agree.
+	 *
+	 * @param nullMovePruning	whether to prune with null moves
+	 */
+	public void setNullMovePruning(boolean nullMovePruning) {
+		this.nullMovePruning = nullMovePruning;
+	}
+
+	/**
+	 * Set an endgame tablebase; positions below the root that it covers are
+	 * scored as won or lost instead of being searched or evaluated
+	 *
+	 * @param tablebase	the tablebase for the board size searched, or null
+	 */
+	public void setTablebase(Tablebase tablebase) {
+		this.tablebase = tablebase;
+	}
+
+	/**
+	 * Set an endgame solver that splits positions into independent regions;
+	 * positions below the root that it solves are scored as won or lost
+	 * instead of being searched or evaluated
+	 *
+	 * @param decomposition	the solver for the board size searched, or null
+	 */
+	public void setDecompositionSolver(DecompositionSolver decomposition) {
+		this.decomposition = decomposition;
+	}
+
+	/**
+	 * Set a listener to tell about every iteration that finishes
+	 *
+	 * @param listener	the listener, or null
+	 */
+	public void setListener(SearchListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Reset the counters
+	 */
+	public void resetStatistics() {
+		this.totalStats.reset();
+	}
+
+	/**
+	 * Get the number of nodes explored since the counters were reset
+	 *
+	 * @return	the number of nodes explored
+	 */
+	public long getNodesExplored() {
+		return this.totalStats.nodes;
+	}
+
+	/**
+	 * Get the deepest node reached since the counters were reset
+	 *
+	 * @return	the maximum depth reached
+	 */
+	public int getMaximumDepthReached() {
+		return this.totalStats.maximumDepthReached;
+	}
+
+	/**
+	 * Get the counters of every iteration since they were reset, with the
+	 * depth of the deepest iteration that finished
+	 *
+	 * @return	a copy of the counters
+	 */
+	public SearchStats getStatistics() {
+		SearchStats copy = new SearchStats();
+		copy.add(this.totalStats);
+		return copy;
+	}
+
+	/**
+	 * Report the statistics of a move to the listener and to Flight Recorder
+	 *
+	 * @param moveStats	the counters of the move, helper threads included
+	 */
+	public void reportMove(SearchStats moveStats) {
+		if (this.listener != null) {
+			this.listener.moveFinished(moveStats);
+		}
+		SearchEvents.moveFinished(moveStats);
+	}
+
+	/**
+	 * Get the best move found by the last search that was not stopped
+	 *
+	 * @return	the best move
+	 */
+	public Move getBestMove() {
+		return this.bestMove;
+	}
+
+	/**
+	 * Get the opponent's reply to the best move in the principal variation
+	 * of the last search that was not stopped
+	 *
+	 * @return	the reply, packed as by Moves.pack, or Moves.NONE if there is none
+	 */
+	public int getExpectedReply() {
+		/* rootMove belongs to the iteration that was stopped, if any, so
+		 * compare with the move of the search the variation came from */
+		if (this.previousPvLength < 2 || this.previousPv[0] != this.bestRootMove) {
+			return Moves.NONE;
+		}
+		return this.previousPv[1];
+	}
+
+	/**
+	 * Get the value found by the last search that was not stopped
+	 *
+	 * @return	the value of the root state
+	 */
+	public int getScore() {
+		return this.score;
+	}
+
+	/**
+	 * Whether the last search was stopped before it finished
+	 *
+	 * @return	true if the last search was stopped
+	 */
+	public boolean isAborted() {
+		return this.aborted;
+	}
+
+	/**
+	 * Search a game to a fixed depth; the player has to be the one to move
+	 *
+	 * @param game		the current game state; not modified
+	 * @param maxDepth	depth bound
+	 * @return			the value of the game, or 0 if the search was stopped
+	 */
+	public int search(Board game, int maxDepth) {
+		if (this.ordering != null) {
+			this.ordering.newSearch();
+		}
+		this.previousPvLength = 0;
+		this.bestRootMove = Moves.NONE;
+		this.aborted = false;
+		this.startIteration();
+		try {
+			int v = this.mtdf && this.pruning ? this.mtdf(game, maxDepth, 0)
+					: this.searchToDepth(game, maxDepth, Integer.MIN_VALUE, Integer.MAX_VALUE);
+			this.keepResult(game, v);
+			this.finishIteration(true);
+			return v;
+		} catch (SearchAbortedException e) {
+			this.aborted = true;
+			this.finishIteration(false);
+			return 0;
+		}
+	}
+
+	/**
+	 * Subfunction of search and iterate: search a game to a fixed depth
+	 * within a window, keeping what move ordering learned so far and
+	 * starting on the principal variation of the last search
+	 *
+	 * @param game		the current game state; not modified
+	 * @param maxDepth	depth bound
+	 * @param alpha		lower end of the window
+	 * @param beta		upper end of the window
+	 * @return			the value of the game, or a bound on it if outside the window
+	 * @throws SearchAbortedException	if the search had to stop before it finished
+	 */
+	private int searchToDepth(Board game, int maxDepth, int alpha, int beta) {
+		this.maxDepth = maxDepth;
+		this.rootMove = Moves.NONE;
+		this.followPv = this.previousPvLength > 0;
+		Node state = new Node(new Board(game), null, 0);
+
+		/* the player is to move at the root, so its values are the player's own */
+		int v = this.negamax(state, maxDepth, Math.max(alpha, -Integer.MAX_VALUE), beta, true);
+		this.nodesExplored--;
+		return v;
+	}
+
+	/**
+	 * Subfunction of search and iterate: search a game to a fixed depth with
+	 * MTD(f), null window searches that each prove the value above or below
+	 * a bound, until the bounds meet. The best move and principal variation
+	 * are those of the last search that proved the value at least as high
+	 * as it is, since one that fails low has no best move.
+	 *
+	 * @param game		the current game state; not modified
+	 * @param maxDepth	depth bound
+	 * @param guess		first guess at the value
+	 * @return			the value of the game
+	 * @throws SearchAbortedException	if the search had to stop before it finished
+	 */
+	private int mtdf(Board game, int maxDepth, int guess) {
+		int lower = Integer.MIN_VALUE;
+		int upper = Integer.MAX_VALUE;
+		int v = guess;
+		int failHighMove = Moves.NONE;
+		int failHighPvLength = 0;
+		while (lower < upper) {
+			int beta = v == lower ? v + 1 : v;
+			v = this.searchToDepth(game, maxDepth, beta - 1, beta);
+			if (v < beta) {
+				upper = v;
+			} else {
+				lower = v;
+				failHighMove = this.rootMove;
+				failHighPvLength = this.pvLength[0];
+				System.arraycopy(this.pv[0], 0, this.failHighPv, 0, failHighPvLength);
+			}
+		}
+		if (failHighMove != Moves.NONE) {
+			this.rootMove = failHighMove;
+			this.pvLength[0] = failHighPvLength;
+			System.arraycopy(this.failHighPv, 0, this.pv[0], 0, failHighPvLength);
+		}
+		return v;
+	}
+
+	/**
+	 * Subfunction of search and iterate: keep the value, best move and
+	 * principal variation of a search that finished inside its window
+	 *
+	 * @param game	the current game state
+	 * @param v		the value found
+	 */
+	private void keepResult(Board game, int v) {
+		this.score = v;
+		this.bestRootMove = this.rootMove;
+		this.bestMove = this.rootMove == Moves.NONE ? null : game.toMove(this.rootMove);
+		this.previousPvLength = this.pvLength[0];
+		System.arraycopy(this.pv[0], 0, this.previousPv, 0, this.previousPvLength);
+	}
+
+	/**
+	 * Subfunction of search and iterate: start counting an iteration
+	 */
+	private void startIteration() {
+		this.nodesExplored = 0;
+		this.maximumDepthReached = 0;
+		this.leafEvaluations = 0;
+		this.expandedNodes = 0;
+		this.betaCutoffs = 0;
+		this.firstMoveCutoffs = 0;
+		this.tableProbes = 0;
+		this.tableHits = 0;
+		this.iterationStart = System.nanoTime();
+		this.allocationStart = SearchStats.allocatedBytes();
+	}
+
+	/**
+	 * Subfunction of search and iterate: stop counting an iteration and add
+	 * its counters to the totals; one that finished is also reported to the
+	 * listener and to Flight Recorder
+	 *
+	 * @param finished	whether the iteration finished, rather than being stopped
+	 */
+	private void finishIteration(boolean finished) {
+		this.stats.reset();
+		this.stats.maximumDepthReached = this.maximumDepthReached;
+		this.stats.nodes = this.nodesExplored;
+		this.stats.leafEvaluations = this.leafEvaluations;
+		this.stats.expandedNodes = this.expandedNodes;
+		this.stats.betaCutoffs = this.betaCutoffs;
+		this.stats.firstMoveCutoffs = this.firstMoveCutoffs;
+		this.stats.tableProbes = this.tableProbes;
+		this.stats.tableHits = this.tableHits;
+		this.stats.nanos = System.nanoTime() - this.iterationStart;
+		this.stats.allocatedBytes = Math.max(0, SearchStats.allocatedBytes() - this.allocationStart);
+		if (finished) {
+			this.stats.depth = this.maxDepth;
+			if (this.listener != null) {
+				this.listener.iterationFinished(this.stats);
+			}
+			SearchEvents.iterationFinished(this.stats);
+		}
+		/* iterations run one after another, so their times add up */
+		long nanos = this.totalStats.nanos + this.stats.nanos;
+		this.totalStats.add(this.stats);
+		this.totalStats.nanos = nanos;
+	}
+
+	/**
+	 * Search a game with iterative deepening until the time manager says
+	 * to stop, the search is stopped or the outcome of the game is found.
+	 * An iteration that is cut short is thrown away whole.
+	 *
+	 * @param game			the current game state; not modified
+	 * @param firstDepth	depth bound of the first iteration
+	 * @return				the best move of the last iteration that finished
+	 */
+	public Move iterate(Board game, int firstDepth) {
+		return this.iterate(game, firstDepth, game.getSize() * game.getSize());
+	}
+
+	/**
+	 * Search a game with iterative deepening, as iterate(game, firstDepth)
+	 * does, but no deeper than a depth bound
+	 *
+	 * @param game			the current game state; not modified
+	 * @param firstDepth	depth bound of the first iteration
+	 * @param lastDepth		depth bound of the last iteration
+	 * @return				the best move of the last iteration that finished
+	 */
+	public Move iterate(Board game, int firstDepth, int lastDepth) {
+		this.bestMove = null;
+		this.bestRootMove = Moves.NONE;
+		this.aborted = false;
+		this.previousPvLength = 0;
+		if (this.ordering != null) {
+			this.ordering.newSearch();
+		}
+
+		int twoDepthsBack = 0;
+		for (int depth = firstDepth; depth <= lastDepth && this.canStartIteration(); depth++) {
+			int window = ASPIRATION_WINDOW;
+			int alpha = Integer.MIN_VALUE;
+			int beta = Integer.MAX_VALUE;
+			if (depth > firstDepth && this.pruning) {
+				alpha = this.score - window;
+				beta = this.score + window;
+			}
+
+			int v;
+			this.startIteration();
+			try {
+				if (this.mtdf && this.pruning) {
+					/* scores swing between odd and even depths, so the best guess
+					 * is the score of the depth before last */
+					int guess = depth > firstDepth + 1 ? twoDepthsBack : depth > firstDepth ? this.score : 0;
+					v = this.mtdf(game, depth, guess);
+				} else {
+					v = this.searchToDepth(game, depth, alpha, beta);
+					while (v <= alpha && alpha != Integer.MIN_VALUE || v >= beta && beta != Integer.MAX_VALUE) {
+						/* outside the window: widen it on the side the value fell and search again */
+						window *= 4;
+						if (window > MAX_ASPIRATION_WINDOW) {
+							alpha = Integer.MIN_VALUE;
+							beta = Integer.MAX_VALUE;
+						} else if (v <= alpha) {
+							alpha = v - window;
+						} else {
+							beta = v + window;
+						}
+						v = this.searchToDepth(game, depth, alpha, beta);
+					}
+				}
+			} catch (SearchAbortedException e) {
+				this.aborted = true;
+				this.finishIteration(false);
+				break;
+			}
+			twoDepthsBack = this.score;
+			this.keepResult(game, v);
+			this.finishIteration(true);
+
+			if (Math.abs(v) == Integer.MAX_VALUE / 2 || Math.abs(v) == Math.abs(Integer.MIN_VALUE / 2) ) {
+				break;
+			}
+		}
+		return this.bestMove;
+	}
+
+	/**
+	 * Subfunction of Alpha-Beta search algorithm, in negamax form: values
+	 * are from the point of view of the player to move at the state, so the
+	 * value of a move is minus the value of the state it leads to, searched
+	 * with the window turned around
+	 *
+	 * @param state		current state in the search tree
+	 * @param depth		plies left to search below the state
+	 * @param alpha		the value of the best choice the player to move has found so far along the path
+	 * @param beta		the value of the best choice the other player has found so far along the path, for the player to move
+	 * @param verify	whether a null move that fails high still has to be verified
+	 * @return	the value of the state for the player to move
+	 */
+	private int negamax(Node state, int depth, int alpha, int beta, boolean verify) {
+
+		if ((++this.nodesExplored & (TimeManager.POLL_INTERVAL - 1)) == 0) {
+			this.poll();
+		}
+		this.pvLength[state.getDepth()] = state.getDepth();
+
+		long entry = this.probe(state);
+		if (this.isTableCutoff(entry, state, depth, alpha, beta)) {
+			return TranspositionTable.scoreOf(entry);
+		}
+
+		if (this.cutoffTest(state, depth)) {
+			if (this.solved != Tablebase.UNKNOWN) {
+				return this.sign(state) * this.solvedValue(state);
+			}
+			this.leafEvaluations++;
+			int value = this.sign(state) * state.eval(this.player);
+			this.store(state, depth, value, -Integer.MAX_VALUE, Integer.MAX_VALUE, Moves.NONE, this.gameOver);
+			return value;
+		}
+
+		int ply = state.getDepth();
+		Undo undo = this.stack.undo(ply);
+		boolean nullMoveFailedHigh = false;
+		if (this.canTryNullMove(state, depth, alpha, beta)) {
+			/* if the other player cannot get below beta even with two moves in a row, our moves will not let it either */
+			this.nullMove[ply] = true;
+			state.makeNullMove(undo);
+			int value = state.getGame().gameWon() != Chip.NONE ? -Integer.MAX_VALUE
+					: -this.negamax(state, depth - 1 - NULL_MOVE_REDUCTION, -beta, -beta + 1, verify);
+			state.unmakeMove(undo);
+			this.nullMove[ply] = false;
+			if (value >= beta) {
+				if (!verify) {
+					return beta;
+				}
+				/* verify instead: search one ply shallower, without verifying below */
+				depth--;
+				verify = false;
+				nullMoveFailedHigh = true;
+			}
+		}
+
+		int[] moves = this.stack.getMoves();
+		int offset = this.stack.offset(ply);
+		int count = this.stack.generate(state.getGame(), ply);
+		this.expandedNodes++;
+
+		this.orderMoves(state, moves, offset, count, entry);
+		if (ply == 0 && this.rootRotation > 0 && count > 2) {
+			rotate(moves, offset + 1, offset + count, this.rootRotation);
+		}
+
+		int alphaOrig = alpha;
+		int v;
+		int bestMove;
+		while (true) {
+			v = -Integer.MAX_VALUE;
+			bestMove = Moves.NONE;
+			for (int i = offset; i < offset + count; i++) {
+				int move = moves[i];
+
+				state.makeMove(move, undo);
+				int value;
+				if (i == offset || !this.pruning) {
+					value = -this.negamax(state, depth - 1, -beta, -alpha, verify);
+					this.followPv = false;
+				} else {
+					/* prove the move no better than alpha with a null window, at first
+					 * less deep if it comes late; search it properly if it is */
+					int reduction = this.reduction(depth, i - offset);
+					value = -this.negamax(state, depth - 1 - reduction, -alpha - 1, -alpha, verify);
+					if (value > alpha && reduction > 0) {
+						value = -this.negamax(state, depth - 1, -alpha - 1, -alpha, verify);
+					}
+					if (value > alpha && value < beta) {
+						value = -this.negamax(state, depth - 1, -beta, -alpha, verify);
+					}
+				}
+				state.unmakeMove(undo);
+				if (v < value) { //
+					v = value;
+					bestMove = move;
+					if (value > alpha) {
+						this.updatePv(ply, move);
+					}
+				}
+
+				if (v >= beta) {
+					break;
+				}
+				if (this.pruning) {
+					alpha = Math.max(v, alpha);
+				}
+			}
+			if (v >= beta || !nullMoveFailedHigh) {
+				break;
+			}
+			/* the null move was wrong: a zugzwang, so search again at full depth */
+			depth++;
+			verify = true;
+			nullMoveFailedHigh = false;
+			alpha = alphaOrig;
+		}
+
+		if (v >= beta) {
+			this.countCutoff(bestMove == moves[offset]);
+			this.recordCutoff(state, depth, bestMove);
+		}
+		this.setBestMove(state, bestMove);
+		this.store(state, depth, v, alphaOrig, beta, bestMove, false);
+		return v;
+	}
+
+	/**
+	 * Whether to try a null move at a state: only in a null window, where a
+	 * bound is all the search needs, with enough depth left to gain from
+	 * it, never twice in a row, and never while the opening removals are
+	 * still being played or the principal variation is being followed
+	 *
+	 * @param state	current state in the search tree
+	 * @param depth	plies left to search below the state
+	 * @param alpha	alpha of the state, for the player to move
+	 * @param beta	beta of the state, for the player to move
+	 * @return		true if a null move may be tried
+	 */
+	private boolean canTryNullMove(Node state, int depth, int alpha, int beta) {
+		int ply = state.getDepth();
+		return this.nullMovePruning && this.pruning && ply > 0 && !this.nullMove[ply - 1] && !this.followPv
+				&& (long) beta - alpha == 1 && depth > NULL_MOVE_REDUCTION + 1 && state.getGame().getTurn() >= 2;
+	}
+
+	/**
+	 * How many plies less deep to search a move first, by late-move reductions
+	 *
+	 * @param depth	plies left to search below the state the move is played in
+	 * @param index	place of the move in the ordered move list
+	 * @return		the reduction, 0 if the move is searched at full depth
+	 */
+	private int reduction(int depth, int index) {
+		if (!this.lateMoveReductions || depth < LMR_MIN_DEPTH || index < LMR_FIRST_MOVE) {
+			return 0;
+		}
+		return index >= LMR_DEEPER_MOVE && depth > LMR_MIN_DEPTH ? 2 : 1;
+	}
+
+	/**
+	 * Abort the search if the stop flag was raised or the time is up; once
+	 * an iteration has finished only the flag can stop the search
+	 *
+	 * @throws SearchAbortedException	if the search has to stop
+	 */
+	private void poll() {
+		if (this.stop != null && this.stop.get()
+				|| this.time != null && this.bestMove != null && this.time.isTimeUp()) {
+			throw new SearchAbortedException();
+		}
+	}
+
+	/**
+	 * Whether iterate() may start another iteration
+	 *
+	 * @return	true if neither the stop flag nor the time manager says to stop
+	 */
+	private boolean canStartIteration() {
+		if (this.stop != null && this.stop.get()) {
+			return false;
+		}
+		return this.time == null || this.bestMove == null || this.time.canStartIteration();
+	}
+
+	/**
+	 * Look up the current state in the transposition table
+	 *
+	 * @param state	current state in the search tree
+	 * @return		the packed table entry, or TranspositionTable.MISS
+	 */
+	private long probe(Node state) {
+		if (this.table == null) {
+			return TranspositionTable.MISS;
+		}
+		long entry = this.table.probe(state.getGame().getHash());
+		this.tableProbes++;
+		if (entry != TranspositionTable.MISS) {
+			this.tableHits++;
+		}
+		return entry;
+	}
+
+	/**
+	 * Whether a table entry settles the value of a state without searching it
+	 *
+	 * @param entry	packed table entry for the state
+	 * @param state	current state in the search tree
+	 * @param depth	plies left to search below the state
+	 * @param alpha	alpha of the state, for the player to move
+	 * @param beta	beta of the state, for the player to move
+	 * @return		true if the entry's score can be returned for this state
+	 */
+	private boolean isTableCutoff(long entry, Node state, int depth, int alpha, int beta) {
+		if (entry == TranspositionTable.MISS || state.getDepth() == 0
+				|| TranspositionTable.depthOf(entry) < depth) {
+			return false;
+		}
+		int score = TranspositionTable.scoreOf(entry);
+		switch (TranspositionTable.boundOf(entry)) {
+		case TranspositionTable.LOWER_BOUND:
+			return score >= beta;
+		case TranspositionTable.UPPER_BOUND:
+			return score <= alpha;
+		default:
+			return true;
+		}
+	}
+
+	/**
+	 * Record the searched value of a state in the transposition table
+	 *
+	 * @param state		current state in the search tree
+	 * @param depth		plies left to search below the state
+	 * @param v			value found for the state, for the player to move
+	 * @param alpha		alpha the state was searched with, for the player to move
+	 * @param beta		beta the state was searched with, for the player to move
+	 * @param bestMove	best move found, or Moves.NONE
+	 * @param terminal	whether the game is over at the state, so that the value holds at any depth
+	 */
+	private void store(Node state, int depth, int v, int alpha, int beta, int bestMove, boolean terminal) {
+		if (this.table == null) {
+			return;
+		}
+		int bound = TranspositionTable.EXACT;
+		if (v <= alpha) {
+			bound = TranspositionTable.UPPER_BOUND;
+		} else if (v >= beta) {
+			bound = TranspositionTable.LOWER_BOUND;
+		}
+		if (terminal) {
+			depth = TranspositionTable.TERMINAL_DEPTH;
+		}
+		this.table.store(state.getGame().getHash(), Math.max(0, depth), bound, v, bestMove);
+	}
+
+	/**
+	 * Order the move list of a state: the move of the last principal variation,
+	 * or else the best move stored for the state, if any, goes first, and with
+	 * move ordering on killer moves and moves with high history scores follow
+	 *
+	 * @param state		current state in the search tree
+	 * @param moves		array holding the legal moves of the state
+	 * @param offset	index of the first move
+	 * @param count		number of moves
+	 * @param entry		packed table entry for the state
+	 */
+	private void orderMoves(Node state, int[] moves, int offset, int count, long entry) {
+		int hashMove = entry == TranspositionTable.MISS ? TranspositionTable.NO_MOVE : TranspositionTable.moveOf(entry);
+		if (this.followPv && state.getDepth() < this.previousPvLength) {
+			hashMove = this.previousPv[state.getDepth()];
+		}
+		if (this.ordering != null) {
+			this.ordering.order(moves, offset, count, hashMove, state.getDepth());
+			return;
+		}
+		if (hashMove == TranspositionTable.NO_MOVE) {
+			return;
+		}
+		for (int i = offset; i < offset + count; i++) {
+			if (moves[i] == hashMove) {
+				System.arraycopy(moves, offset, moves, offset + 1, i - offset);
+				moves[offset] = hashMove;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Rotate part of an array to the right
+	 *
+	 * @param a			the array
+	 * @param from		index of the first element to rotate
+	 * @param to		index after the last element to rotate
+	 * @param distance	number of places to rotate by
+	 */
+	private static void rotate(int[] a, int from, int to, int distance) {
+		distance %= to - from;
+		reverse(a, from, to);
+		reverse(a, from, from + distance);
+		reverse(a, from + distance, to);
+	}
+
+	/**
+	 * Reverse part of an array
+	 *
+	 * @param a		the array
+	 * @param from	index of the first element to reverse
+	 * @param to	index after the last element to reverse
+	 */
+	private static void reverse(int[] a, int from, int to) {
+		for (int i = from, j = to - 1; i < j; i++, j--) {
+			int temp = a[i];
+			a[i] = a[j];
+			a[j] = temp;
+		}
+	}
+
+	/**
+	 * Remember the best move found for the root of the search
+	 *
+	 * @param state	current state in the search tree
+	 * @param move	best move found for the state
+	 */
+	private void setBestMove(Node state, int move) {
+		if (state.getDepth() == 0) {
+			this.rootMove = move;
+		}
+	}
+
+	/**
+	 * Make a move followed by the principal variation below it the principal
+	 * variation of a ply
+	 *
+	 * @param ply	distance from the root of the search
+	 * @param move	the best move found at the ply
+	 */
+	private void updatePv(int ply, int move) {
+		this.pv[ply][ply] = move;
+		int length = Math.max(this.pvLength[ply + 1], ply + 1);
+		System.arraycopy(this.pv[ply + 1], ply + 1, this.pv[ply], ply + 1, length - (ply + 1));
+		this.pvLength[ply] = length;
+	}
+
+	/**
+	 * Count a cutoff
+	 *
+	 * @param firstMove	whether the first move searched caused it
+	 */
+	private void countCutoff(boolean firstMove) {
+		this.betaCutoffs++;
+		if (firstMove) {
+			this.firstMoveCutoffs++;
+		}
+	}
+
+	/**
+	 * Tell move ordering that a move caused a cutoff
+	 *
+	 * @param state	current state in the search tree
+	 * @param depth	plies left to search below the state
+	 * @param move	the move that caused the cutoff
+	 */
+	private void recordCutoff(Node state, int depth, int move) {
+		if (this.ordering != null) {
+			this.ordering.cutoff(move, state.getDepth(), depth);
+		}
+	}
+
+	/**
+	 * Subfunction of Minimax algorithm
+	 *
+	 * @param state	current state in the search tree
+	 * @param depth	plies left to search below the state
+	 * @return	true if the search tree need to be cut off; false otherwise
+	 */
+	private boolean cutoffTest(Node state, int depth) {
+		this.solved = Tablebase.UNKNOWN;
+		if (this.tablebase != null && state.getDepth() > 0) {
+			/* never at the root, which needs a move and not just a result */
+			this.solved = this.tablebase.probe(state.getGame());
+		}
+		if (this.solved == Tablebase.UNKNOWN && this.decomposition != null && state.getDepth() > 0) {
+			this.solved = this.decomposition.probe(state.getGame());
+		}
+		/* negamax passes gameOver on to store, which needs it too */
+		this.gameOver = this.solved == Tablebase.UNKNOWN && state.getGame().gameWon() != Chip.NONE;
+		boolean checkCutOff = this.solved != Tablebase.UNKNOWN || this.gameOver || depth <= 0;
+		if (checkCutOff) {
+			if (this.maximumDepthReached < state.getDepth())
+				this.maximumDepthReached = state.getDepth();
+		}
+
+		return checkCutOff;
+	}
+
+	/**
+	 * Subfunction of Alpha-Beta search algorithm: turns values for the
+	 * player into values for the player to move at a state
+	 *
+	 * @param state	current state in the search tree
+	 * @return	1 if the player is to move, -1 if the opponent is
+	 */
+	private int sign(Node state) {
+		return (this.player == Chip.BLACK) == state.getGame().isBlackToPlay() ? 1 : -1;
+	}
+
+	/**
+	 * Subfunction of Alpha-Beta search algorithm: the exact value of a state
+	 * solved by the tablebase or the decomposition solver in cutoffTest
+	 *
+	 * @param state	current state in the search tree
+	 * @return	the utility value of a win or a loss for the player
+	 */
+	private int solvedValue(Node state) {
+		boolean playerToMove = (this.player == Chip.BLACK) == state.getGame().isBlackToPlay();
+		if (playerToMove == (this.solved == Tablebase.WIN)) {
+			return Integer.MAX_VALUE / 2;
+		}
+		return Integer.MIN_VALUE / 2;
+	}
+
+}
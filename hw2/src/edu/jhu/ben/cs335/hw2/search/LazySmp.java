@@ -0,0 +1,182 @@
+package edu.jhu.ben.cs335.hw2.search;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import edu.jhu.ben.cs335.hw2.board.Board;
+import edu.jhu.ben.cs335.hw2.board.Chip;
+import edu.jhu.ben.cs335.hw2.endgame.DecompositionSolver;
+import edu.jhu.ben.cs335.hw2.endgame.Tablebase;
+
+/**
+ * Helper threads for a parallel ("lazy SMP") alpha-beta search.
+ *
+ * While a player's own search runs, each helper searches the same game
+ * with iterative deepening, half of them one ply deeper than the others,
+ * each starting on a different root move. Helpers only communicate through
+ * the shared transposition table: the positions they settle first become
+ * table hits for the player's search.
+ *
+ * @author Zhihao Cao
+ */
+public class LazySmp {
+
+	private AlphaBetaSearch[] helpers;
+	private ExecutorService pool;
+	private AtomicBoolean stop;
+	private ArrayList<Future<?>> running;
+
+	/**
+	 * Create helpers for a search using the given number of threads in total
+	 *
+	 * @param threads		number of search threads, counting the player's own
+	 * @param player		the color of the player searching
+	 * @param moveOrdering	whether to order moves by killer moves and history scores
+	 * @param table			transposition table shared by every thread
+	 */
+	public LazySmp(int threads, Chip player, boolean moveOrdering, TranspositionTable table) {
+		this.stop = new AtomicBoolean(false);
+		this.running = new ArrayList<Future<?>>();
+		this.helpers = new AlphaBetaSearch[threads - 1];
+		for (int i = 0; i < this.helpers.length; i++) {
+			this.helpers[i] = new AlphaBetaSearch(player, moveOrdering, table);
+			this.helpers[i].setStopFlag(this.stop);
+			this.helpers[i].setRootRotation(i + 1);
+		}
+		this.pool = Executors.newFixedThreadPool(this.helpers.length, new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "konane-search-helper");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Set whether every helper prunes with alpha-beta
+	 *
+	 * @param pruning	whether to prune
+	 */
+	public void setPruning(boolean pruning) {
+		for (AlphaBetaSearch helper : this.helpers) {
+			helper.setPruning(pruning);
+		}
+	}
+
+	/**
+	 * Set the endgame tablebase every helper probes
+	 *
+	 * @param tablebase	the tablebase for the board size searched, or null
+	 */
+	public void setTablebase(Tablebase tablebase) {
+		for (AlphaBetaSearch helper : this.helpers) {
+			helper.setTablebase(tablebase);
+		}
+	}
+
+	/**
+	 * Set the decomposition endgame solver every helper probes
+	 *
+	 * @param decomposition	the solver for the board size searched, or null
+	 */
+	public void setDecompositionSolver(DecompositionSolver decomposition) {
+		for (AlphaBetaSearch helper : this.helpers) {
+			helper.setDecompositionSolver(decomposition);
+		}
+	}
+
+	/**
+	 * Set whether every helper searches late moves less deep at first
+	 *
+	 * @param lateMoveReductions	whether to reduce late moves
+	 */
+	public void setLateMoveReductions(boolean lateMoveReductions) {
+		for (AlphaBetaSearch helper : this.helpers) {
+			helper.setLateMoveReductions(lateMoveReductions);
+		}
+	}
+
+	/**
+	 * Set whether every helper prunes with verified null moves
+	 *
+	 * @param nullMovePruning	whether to prune with null moves
+	 */
+	public void setNullMovePruning(boolean nullMovePruning) {
+		for (AlphaBetaSearch helper : this.helpers) {
+			helper.setNullMovePruning(nullMovePruning);
+		}
+	}
+
+	/**
+	 * Start the helpers on a game; they run until stop() is called or the time is up
+	 *
+	 * @param game	the current game state; not modified
+	 * @param time	the clock of the player's search, already started, or null
+	 */
+	public void start(Board game, TimeManager time) {
+		final Board root = new Board(game);
+		this.stop.set(false);
+		for (int i = 0; i < this.helpers.length; i++) {
+			final AlphaBetaSearch helper = this.helpers[i];
+			final int firstDepth = 1 + (i % 2);
+			helper.resetStatistics();
+			helper.setTimeManager(time);
+			this.running.add(this.pool.submit(new Runnable() {
+				public void run() {
+					helper.iterate(root, firstDepth);
+				}
+			}));
+		}
+	}
+
+	/**
+	 * Stop the helpers and wait for them to finish
+	 *
+	 * @throws RuntimeException	wrapping what a helper threw, once every helper has stopped
+	 */
+	public void stop() {
+		this.stop.set(true);
+		Throwable failure = null;
+		for (Future<?> helper : this.running) {
+			try {
+				helper.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException e) {
+				if (failure == null) {
+					failure = e.getCause();
+				}
+			}
+		}
+		this.running.clear();
+		if (failure != null) {
+			throw new RuntimeException("search helper failed", failure);
+		}
+	}
+
+	/**
+	 * Add the counters of the helpers since they were last started to a
+	 * search's; call only once they have stopped
+	 *
+	 * @param stats	the counters to add to
+	 */
+	public void addStatistics(SearchStats stats) {
+		for (AlphaBetaSearch helper : this.helpers) {
+			stats.add(helper.getStatistics());
+		}
+	}
+
+	/**
+	 * Stop the helpers and release their threads
+	 */
+	public void shutdown() {
+		this.stop();
+		this.pool.shutdown();
+	}
+
+}
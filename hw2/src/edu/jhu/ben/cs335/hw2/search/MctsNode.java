@@ -0,0 +1,164 @@
+package edu.jhu.ben.cs335.hw2.search;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.jhu.ben.cs335.hw2.board.Board;
+
+/**
+ * Node of a Monte Carlo search tree, shared by every thread searching it.
+ *
+ * Visit and win counters are atomic. A thread counts its visit on the way
+ * down and its win, if any, on the way back up, so until its playout ends
+ * the visit counts as a loss ("virtual loss") and steers the other threads
+ * to other moves. Children are created all at once by whichever thread
+ * expands the node first.
+ *
+ * @author Zhihao Cao
+ */
+class MctsNode {
+
+	/**
+	 * children of a node whose position is over
+	 */
+	private static final MctsNode[] NO_CHILDREN = new MctsNode[0];
+
+	private final int move;
+	private final boolean blackMoved;
+	private final AtomicInteger visits;
+	private final AtomicInteger wins;
+	private volatile MctsNode[] children;
+
+	/**
+	 * Create a node
+	 *
+	 * @param move			the move leading to the node, packed as by Moves.pack, or Moves.NONE for the root
+	 * @param blackMoved	whether black played that move
+	 */
+	MctsNode(int move, boolean blackMoved) {
+		this.move = move;
+		this.blackMoved = blackMoved;
+		this.visits = new AtomicInteger();
+		this.wins = new AtomicInteger();
+	}
+
+	/**
+	 * Create the children of the node, unless another thread already did
+	 *
+	 * @param game	the position of the node
+	 * @param moves	scratch array to generate moves into
+	 */
+	void expand(Board game, int[] moves) {
+		if (this.children != null) {
+			return;
+		}
+		synchronized (this) {
+			if (this.children == null) {
+				int count = game.generateMoves(moves, 0);
+				MctsNode[] created = count == 0 ? NO_CHILDREN : new MctsNode[count];
+				for (int i = 0; i < count; i++) {
+					created[i] = new MctsNode(moves[i], game.isBlackToPlay());
+				}
+				this.children = created;
+			}
+		}
+	}
+
+	/**
+	 * Pick the child to descend to by UCT: the best upper confidence bound on
+	 * its win rate, unvisited children first
+	 *
+	 * @param exploration	weight of the confidence term
+	 * @return				the child, or null if the node has none
+	 */
+	MctsNode select(double exploration) {
+		MctsNode[] nodes = this.children;
+		MctsNode best = null;
+		double bestValue = Double.NEGATIVE_INFINITY;
+		double logVisits = Math.log(Math.max(1, this.visits.get()));
+		for (MctsNode child : nodes) {
+			int n = child.visits.get();
+			if (n == 0) {
+				return child;
+			}
+			double value = (double) child.wins.get() / n + exploration * Math.sqrt(logVisits / n);
+			if (value > bestValue) {
+				bestValue = value;
+				best = child;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Count a visit, before its playout is over
+	 */
+	void visit() {
+		this.visits.incrementAndGet();
+	}
+
+	/**
+	 * Count the result of a playout through the node
+	 *
+	 * @param blackWon	whether black won the playout
+	 */
+	void update(boolean blackWon) {
+		if (blackWon == this.blackMoved) {
+			this.wins.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Get the most visited child, the move a search settles on
+	 *
+	 * @return	the child, or null if the node has none
+	 */
+	MctsNode mostVisited() {
+		MctsNode[] nodes = this.children;
+		MctsNode best = null;
+		if (nodes != null) {
+			for (MctsNode child : nodes) {
+				if (best == null || child.visits.get() > best.visits.get()) {
+					best = child;
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Whether the node has been expanded
+	 *
+	 * @return	true if its children exist
+	 */
+	boolean isExpanded() {
+		return this.children != null;
+	}
+
+	/**
+	 * Get the move leading to the node
+	 *
+	 * @return	the move, packed
+	 */
+	int getMove() {
+		return this.move;
+	}
+
+	/**
+	 * Get the number of visits to the node
+	 *
+	 * @return	the number of visits
+	 */
+	int getVisits() {
+		return this.visits.get();
+	}
+
+	/**
+	 * Get the number of playouts through the node won by the player who moved to it
+	 *
+	 * @return	the number of wins
+	 */
+	int getWins() {
+		return this.wins.get();
+	}
+
+}
@@ -0,0 +1,250 @@
+package edu.jhu.ben.cs335.hw2.search;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.jhu.ben.cs335.hw2.board.Board;
+import edu.jhu.ben.cs335.hw2.board.Move;
+import edu.jhu.ben.cs335.hw2.board.Moves;
+import edu.jhu.ben.cs335.hw2.board.Undo;
+
+/**
+ * Monte Carlo tree search with UCT selection and random playouts.
+ *
+ * Each playout descends the tree by UCT from the root, expands the node it
+ * ends on once that node has been reached before, plays random moves to the
+ * end of the game and counts the winner in every node on its path. Konane
+ * has no draws, so a playout is a win for one side.
+ *
+ * The tree is shared by a pool of threads ("tree parallelism"); counters
+ * are atomic and visits count as losses until their playout is over, so the
+ * threads spread out over the tree instead of all following one line. Each
+ * thread copies the root position into its own board for every playout, so
+ * playing out allocates nothing.
+ *
+ * @author Zhihao Cao
+ */
+public class MonteCarloTreeSearch {
+
+	/**
+	 * weight of the exploration term of UCT
+	 */
+	private static final double EXPLORATION = Math.sqrt(2);
+
+	/**
+	 * visits a leaf gets before it is expanded
+	 */
+	private static final int EXPANSION_VISITS = 2;
+
+	private int threads;
+	private ExecutorService pool;
+	private AtomicLong playouts;
+	private int maximumDepthReached;
+	private MctsNode root;
+
+	/**
+	 * Create a MonteCarloTreeSearch
+	 *
+	 * @param threads	number of threads to search with, at least 1
+	 */
+	public MonteCarloTreeSearch(int threads) {
+		this.threads = Math.max(1, threads);
+		this.playouts = new AtomicLong();
+		this.pool = Executors.newFixedThreadPool(this.threads, new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "konane-mcts");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Search a game until the time manager says to stop
+	 *
+	 * @param game	the current game state; not modified
+	 * @param time	the clock, already started for the current move
+	 * @return		the most visited move, or null if there is no legal move
+	 * @throws RuntimeException	wrapping what a worker threw, once every worker has stopped
+	 */
+	public Move search(Board game, TimeManager time) {
+		this.playouts.set(0);
+		this.maximumDepthReached = 0;
+		this.root = new MctsNode(Moves.NONE, !game.isBlackToPlay());
+		this.root.expand(game, new int[Moves.MAX_MOVES]);
+
+		ArrayList<Future<?>> running = new ArrayList<Future<?>>();
+		for (int i = 0; i < this.threads; i++) {
+			running.add(this.pool.submit(new Worker(game, time, i)));
+		}
+		Throwable failure = null;
+		for (Future<?> worker : running) {
+			try {
+				worker.get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException e) {
+				if (failure == null) {
+					failure = e.getCause();
+				}
+			}
+		}
+		if (failure != null) {
+			throw new RuntimeException("playout worker failed", failure);
+		}
+
+		MctsNode best = this.root.mostVisited();
+		return best == null ? null : game.toMove(best.getMove());
+	}
+
+	/**
+	 * Get the number of playouts of the last search
+	 *
+	 * @return	the number of playouts
+	 */
+	public long getPlayouts() {
+		return this.playouts.get();
+	}
+
+	/**
+	 * Get the depth of the deepest node the last search selected
+	 *
+	 * @return	the depth below the root
+	 */
+	public int getMaximumDepthReached() {
+		return this.maximumDepthReached;
+	}
+
+	/**
+	 * Get the share of playouts through the chosen move that the player won
+	 *
+	 * @return	the win rate of the most visited move, or 0 if there is none
+	 */
+	public double getWinRate() {
+		MctsNode best = this.root == null ? null : this.root.mostVisited();
+		if (best == null || best.getVisits() == 0) {
+			return 0;
+		}
+		return (double) best.getWins() / best.getVisits();
+	}
+
+	/**
+	 * Release the search threads
+	 */
+	public void shutdown() {
+		this.pool.shutdown();
+	}
+
+	/**
+	 * Subfunction of Worker.run: record how deep a worker's playouts selected
+	 *
+	 * @param depth	the depth below the root
+	 */
+	private synchronized void reachedDepth(int depth) {
+		if (this.maximumDepthReached < depth) {
+			this.maximumDepthReached = depth;
+		}
+	}
+
+	/**
+	 * One search thread, with its own board, buffers and random numbers
+	 */
+	private class Worker implements Runnable {
+
+		private Board start;
+		private TimeManager time;
+		private Board game;
+		private int[] moves;
+		private Undo undo;
+		private MctsNode[] path;
+		private Random random;
+
+		/**
+		 * Create a Worker
+		 *
+		 * @param start	the root position
+		 * @param time	the clock of the search
+		 * @param seed	seed of the worker's random numbers
+		 */
+		Worker(Board start, TimeManager time, int seed) {
+			this.start = start;
+			this.time = time;
+			this.game = new Board(start);
+			this.moves = new int[Moves.MAX_MOVES];
+			this.undo = new Undo();
+			this.path = new MctsNode[Moves.MAX_PLY + 2];
+			this.random = new Random(start.getHash() + seed);
+		}
+
+		public void run() {
+			long count = 0;
+			int deepest = 0;
+			/* a playout is short, so unlike an alpha-beta iteration it can run
+			 * right up to the hard deadline */
+			do {
+				deepest = Math.max(deepest, this.playout());
+				count++;
+			} while (!this.time.isTimeUp());
+			playouts.addAndGet(count);
+			reachedDepth(deepest);
+		}
+
+		/**
+		 * Select, expand, play out and count one game
+		 *
+		 * @return	the depth of the node the playout started from
+		 */
+		private int playout() {
+			this.game.copyFrom(this.start);
+			MctsNode node = root;
+			node.visit();
+			int depth = 0;
+			this.path[depth++] = node;
+
+			/* selection */
+			while (node.isExpanded()) {
+				MctsNode child = node.select(EXPLORATION);
+				if (child == null) {
+					break;
+				}
+				node = child;
+				this.game.makeMove(node.getMove(), this.undo);
+				node.visit();
+				this.path[depth++] = node;
+			}
+
+			/* expansion */
+			if (!node.isExpanded() && node.getVisits() >= EXPANSION_VISITS) {
+				node.expand(this.game, this.moves);
+				MctsNode child = node.select(EXPLORATION);
+				if (child != null) {
+					node = child;
+					this.game.makeMove(node.getMove(), this.undo);
+					node.visit();
+					this.path[depth++] = node;
+				}
+			}
+
+			/* playout: the side to move when no move is left has lost */
+			int count;
+			while ((count = this.game.generateMoves(this.moves, 0)) > 0) {
+				this.game.makeMove(this.moves[this.random.nextInt(count)], this.undo);
+			}
+			boolean blackWon = !this.game.isBlackToPlay();
+
+			/* backpropagation */
+			for (int i = 0; i < depth; i++) {
+				this.path[i].update(blackWon);
+			}
+			return depth - 1;
+		}
+
+	}
+
+}
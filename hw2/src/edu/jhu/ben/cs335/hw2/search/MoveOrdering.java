@@ -0,0 +1,120 @@
+package edu.jhu.ben.cs335.hw2.search;
+
+import java.util.Arrays;
+
+import edu.jhu.ben.cs335.hw2.board.Moves;
+
+/**
+ * Dynamic move ordering for alpha-beta search: the transposition table's
+ * best move first, then the killer moves of the ply, then the remaining
+ * moves by their history score.
+ *
+ * Killers are the last two moves that caused a cutoff at a ply; the history
+ * score of a move grows with every cutoff it causes, weighted by the depth
+ * left below it. Both are learned while searching, so ordering costs no
+ * evaluation. Moves are packed as by Moves.pack.
+ *
+ * @author Zhihao Cao
+ */
+public class MoveOrdering {
+
+	/**
+	 * number of killer moves kept per ply
+	 */
+	private static final int KILLERS = 2;
+
+	/**
+	 * sort keys above any history score
+	 */
+	private static final int HASH_MOVE_SCORE = Integer.MAX_VALUE;
+	private static final int KILLER_SCORE = Integer.MAX_VALUE - KILLERS;
+
+	private int[][] killers;
+	private int[] history;
+	private int[] scores;
+
+	/**
+	 * Create an empty MoveOrdering
+	 */
+	public MoveOrdering() {
+		this.killers = new int[Moves.MAX_PLY + 1][KILLERS];
+		this.history = new int[Moves.LIMIT];
+		this.scores = new int[Moves.MAX_MOVES];
+	}
+
+	/**
+	 * Start a new search: killers are forgotten and history scores halved,
+	 * so that what was learned about the last position counts for less
+	 */
+	public void newSearch() {
+		for (int[] ply : this.killers) {
+			Arrays.fill(ply, TranspositionTable.NO_MOVE);
+		}
+		for (int i = 0; i < this.history.length; i++) {
+			this.history[i] >>= 1;
+		}
+	}
+
+	/**
+	 * Sort a move list, best candidates first
+	 *
+	 * @param moves		array holding the legal moves of a gameboard
+	 * @param offset	index of the first move
+	 * @param count		number of moves
+	 * @param hashMove	best move from the transposition table, or TranspositionTable.NO_MOVE
+	 * @param ply		distance of the gameboard from the root of the search
+	 */
+	public void order(int[] moves, int offset, int count, int hashMove, int ply) {
+		int[] killersAtPly = this.killers[ply];
+		for (int i = 0; i < count; i++) {
+			int move = moves[offset + i];
+			int score = this.history[move];
+			if (move == hashMove) {
+				score = HASH_MOVE_SCORE;
+			} else {
+				for (int k = 0; k < KILLERS; k++) {
+					if (move == killersAtPly[k]) {
+						score = KILLER_SCORE - k;
+					}
+				}
+			}
+			this.scores[i] = score;
+		}
+
+		/* insertion sort: move lists are short, and it keeps equal moves in generation order */
+		for (int i = 1; i < count; i++) {
+			int move = moves[offset + i];
+			int score = this.scores[i];
+			int j = i - 1;
+			while (j >= 0 && this.scores[j] < score) {
+				moves[offset + j + 1] = moves[offset + j];
+				this.scores[j + 1] = this.scores[j];
+				j--;
+			}
+			moves[offset + j + 1] = move;
+			this.scores[j + 1] = score;
+		}
+	}
+
+	/**
+	 * Record a move that caused a cutoff
+	 *
+	 * @param move	the move
+	 * @param ply	distance of the gameboard from the root of the search
+	 * @param depth	depth left to search below the gameboard
+	 */
+	public void cutoff(int move, int ply, int depth) {
+		if (this.killers[ply][0] != move) {
+			this.killers[ply][1] = this.killers[ply][0];
+			this.killers[ply][0] = move;
+		}
+		this.history[move] += depth * depth;
+		if (this.history[move] > KILLER_SCORE - KILLERS) {
+			/* keep scores below the killer keys */
+			for (int i = 0; i < this.history.length; i++) {
+				this.history[i] >>= 1;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,72 @@
+package edu.jhu.ben.cs335.hw2.search;
+
+import edu.jhu.ben.cs335.hw2.board.Board;
+import edu.jhu.ben.cs335.hw2.board.Moves;
+import edu.jhu.ben.cs335.hw2.board.Undo;
+
+/**
+ * Preallocated move lists and undo records for every ply of a search, so
+ * that generating, ordering and playing moves allocates nothing.
+ *
+ * Ply p owns the slice of getMoves() starting at offset(p); a stack belongs
+ * to one search thread.
+ *
+ * @author Zhihao Cao
+ */
+public class MoveStack {
+
+	private int[] moves;
+	private Undo[] undos;
+
+	/**
+	 * Create a MoveStack deep enough for any game
+	 */
+	public MoveStack() {
+		this.moves = new int[(Moves.MAX_PLY + 1) * Moves.MAX_MOVES];
+		this.undos = new Undo[Moves.MAX_PLY + 1];
+		for (int i = 0; i < this.undos.length; i++) {
+			this.undos[i] = new Undo();
+		}
+	}
+
+	/**
+	 * Generate the legal moves of a gameboard into the slice of a ply
+	 *
+	 * @param game	the gameboard
+	 * @param ply	distance of the gameboard from the root of the search
+	 * @return		the number of moves generated
+	 */
+	public int generate(Board game, int ply) {
+		return game.generateMoves(this.moves, this.offset(ply));
+	}
+
+	/**
+	 * Get the array every ply's moves are stored in
+	 *
+	 * @return	the move array
+	 */
+	public int[] getMoves() {
+		return this.moves;
+	}
+
+	/**
+	 * Get the index of the first move of a ply
+	 *
+	 * @param ply	distance from the root of the search
+	 * @return		the index in getMoves()
+	 */
+	public int offset(int ply) {
+		return ply * Moves.MAX_MOVES;
+	}
+
+	/**
+	 * Get the undo record for the moves played at a ply
+	 *
+	 * @param ply	distance from the root of the search
+	 * @return		the undo record
+	 */
+	public Undo undo(int ply) {
+		return this.undos[ply];
+	}
+
+}
@@ -0,0 +1,184 @@
+package edu.jhu.ben.cs335.hw2.search;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import edu.jhu.ben.cs335.hw2.board.Board;
+import edu.jhu.ben.cs335.hw2.board.Chip;
+import edu.jhu.ben.cs335.hw2.board.Undo;
+import edu.jhu.ben.cs335.hw2.endgame.DecompositionSolver;
+import edu.jhu.ben.cs335.hw2.endgame.Tablebase;
+
+/**
+ * Searches on the opponent's time ("pondering").
+ *
+ * Once a player has chosen a move, the ponderer plays it and the reply the
+ * player's search expects on a copy of the game, and searches the position
+ * that results on a background thread until the player's next turn. If the
+ * opponent did play the expected reply, the player's next search starts
+ * from a transposition table already filled with that position's subtree.
+ *
+ * @author Zhihao Cao
+ */
+public class Ponderer {
+
+	/**
+	 * longest shutdown waits for the background search to see the stop flag;
+	 * it looks at the flag every TimeManager.POLL_INTERVAL nodes, so well before this
+	 */
+	private static final long SHUTDOWN_MILLISECONDS = 1000;
+
+	private AlphaBetaSearch search;
+	private ExecutorService thread;
+	private AtomicBoolean stop;
+	private Future<?> running;
+	private long position;
+
+	/**
+	 * Create a Ponderer
+	 *
+	 * @param player		the color of the player pondering
+	 * @param moveOrdering	whether to order moves by killer moves and history scores
+	 * @param table			transposition table shared with the player's own search
+	 */
+	public Ponderer(Chip player, boolean moveOrdering, TranspositionTable table) {
+		this.stop = new AtomicBoolean(false);
+		this.search = new AlphaBetaSearch(player, moveOrdering, table);
+		this.search.setStopFlag(this.stop);
+		this.thread = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "konane-ponder");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Set whether the pondering search prunes with alpha-beta
+	 *
+	 * @param pruning	whether to prune
+	 */
+	public void setPruning(boolean pruning) {
+		this.search.setPruning(pruning);
+	}
+
+	/**
+	 * Set the endgame tablebase the pondering search probes
+	 *
+	 * @param tablebase	the tablebase for the board size searched, or null
+	 */
+	public void setTablebase(Tablebase tablebase) {
+		this.search.setTablebase(tablebase);
+	}
+
+	/**
+	 * Set the decomposition endgame solver the pondering search probes
+	 *
+	 * @param decomposition	the solver for the board size searched, or null
+	 */
+	public void setDecompositionSolver(DecompositionSolver decomposition) {
+		this.search.setDecompositionSolver(decomposition);
+	}
+
+	/**
+	 * Set whether the pondering search searches late moves less deep at first
+	 *
+	 * @param lateMoveReductions	whether to reduce late moves
+	 */
+	public void setLateMoveReductions(boolean lateMoveReductions) {
+		this.search.setLateMoveReductions(lateMoveReductions);
+	}
+
+	/**
+	 * Set whether the pondering search prunes with verified null moves
+	 *
+	 * @param nullMovePruning	whether to prune with null moves
+	 */
+	public void setNullMovePruning(boolean nullMovePruning) {
+		this.search.setNullMovePruning(nullMovePruning);
+	}
+
+	/**
+	 * Start pondering on the position after a move and its expected reply;
+	 * nothing happens if the game is over by then
+	 *
+	 * @param game	the game state the move is played on; not modified
+	 * @param move	the move the player chose, packed as by Moves.pack
+	 * @param reply	the reply expected from the opponent, packed
+	 */
+	public void start(Board game, int move, int reply) {
+		final Board expected = new Board(game);
+		Undo undo = new Undo();
+		expected.makeMove(move, undo);
+		expected.makeMove(reply, undo);
+		if (expected.gameWon() != Chip.NONE) {
+			return;
+		}
+
+		this.position = expected.getHash();
+		this.stop.set(false);
+		this.search.resetStatistics();
+		this.running = this.thread.submit(new Runnable() {
+			public void run() {
+				search.iterate(expected, 1);
+			}
+		});
+	}
+
+	/**
+	 * Stop pondering and wait for the background search to finish
+	 *
+	 * @param game	the game state the player now has to move in
+	 * @return		true if it is the position that was pondered on
+	 * @throws RuntimeException	wrapping what the pondering search threw
+	 */
+	public boolean stop(Board game) {
+		if (this.running == null) {
+			return false;
+		}
+		this.stop.set(true);
+		Future<?> pondering = this.running;
+		this.running = null;
+		try {
+			pondering.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			throw new RuntimeException("pondering failed", e.getCause());
+		}
+		return game.getHash() == this.position;
+	}
+
+	/**
+	 * Get the number of nodes explored by the last pondering
+	 *
+	 * @return	the number of nodes explored
+	 */
+	public long getNodesExplored() {
+		return this.search.getNodesExplored();
+	}
+
+	/**
+	 * Stop pondering and release the background thread, waiting for it to
+	 * exit so that it takes no CPU time from whatever runs next
+	 */
+	public void shutdown() {
+		this.stop.set(true);
+		this.running = null;
+		this.thread.shutdown();
+		try {
+			if (!this.thread.awaitTermination(SHUTDOWN_MILLISECONDS, TimeUnit.MILLISECONDS)) {
+				System.err.println("Pondering thread did not stop within " + SHUTDOWN_MILLISECONDS + "ms");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,268 @@
+package edu.jhu.ben.cs335.hw2.search;
+
+import edu.jhu.ben.cs335.hw2.board.Board;
+import edu.jhu.ben.cs335.hw2.board.Move;
+import edu.jhu.ben.cs335.hw2.board.Moves;
+import edu.jhu.ben.cs335.hw2.board.Undo;
+import edu.jhu.ben.cs335.hw2.endgame.DecompositionSolver;
+import edu.jhu.ben.cs335.hw2.endgame.Tablebase;
+
+/**
+ * Depth-first proof-number search (df-pn): finds out whether the player to
+ * move wins a position, with no depth bound and no evaluation function.
+ *
+ * Every position has a proof number, the number of positions that would at
+ * least have to be solved to show that the player to move wins it, and a
+ * disproof number, the same to show that it is lost: a position's proof
+ * number is the least disproof number of the positions after its moves, and
+ * its disproof number the sum of their proof numbers. The search always goes
+ * down the move whose position is cheapest to disprove, so it spends its
+ * effort on the lines where the outcome is closest to being decided, and
+ * backs up once the numbers outgrow thresholds passed down from the parent,
+ * keeping what it learned in a ProofNumberTable. Konane has no draws and no
+ * repeated positions, so every position is eventually won or lost.
+ *
+ * Child disproof thresholds use the 1 + epsilon trick, letting the search
+ * stay in a subtree until it costs a quarter more than the next best move
+ * rather than just one more, which saves re-searching the same two
+ * subtrees in turn.
+ *
+ * @author Zhihao Cao
+ */
+public class ProofNumberSearch {
+
+	/**
+	 * results of solve, for the side to move
+	 */
+	public static final int LOSS = Tablebase.LOSS;
+	public static final int UNKNOWN = Tablebase.UNKNOWN;
+	public static final int WIN = Tablebase.WIN;
+
+	private static final int INFINITY = ProofNumberTable.INFINITY;
+
+	private ProofNumberTable table;
+	private MoveStack stack;
+	private long[][] childKeys;
+	private Tablebase tablebase;
+	private DecompositionSolver decomposition;
+	private TimeManager time;
+	private long maxNodes;
+	private long nodes;
+	private boolean aborted;
+	private int bestMove;
+	private Move result;
+
+	/**
+	 * Create a ProofNumberSearch
+	 *
+	 * @param megabytes	memory budget of its table; positions that do not
+	 * 					fit are searched again when they are needed
+	 */
+	public ProofNumberSearch(int megabytes) {
+		this.table = new ProofNumberTable(megabytes);
+		this.stack = new MoveStack();
+		this.childKeys = new long[Moves.MAX_PLY + 1][Moves.MAX_MOVES];
+	}
+
+	/**
+	 * Set an endgame tablebase; positions below the root that it covers are
+	 * solved without being searched
+	 *
+	 * @param tablebase	the tablebase for the board size searched, or null
+	 */
+	public void setTablebase(Tablebase tablebase) {
+		this.tablebase = tablebase;
+	}
+
+	/**
+	 * Set an endgame solver that splits positions into independent regions;
+	 * positions below the root that it solves are not searched
+	 *
+	 * @param decomposition	the solver for the board size searched, or null
+	 */
+	public void setDecompositionSolver(DecompositionSolver decomposition) {
+		this.decomposition = decomposition;
+	}
+
+	/**
+	 * Forget every position searched; solving the same position again then
+	 * costs as much as the first time
+	 */
+	public void clear() {
+		this.table.clear();
+	}
+
+	/**
+	 * Solve a position within a time and node budget. What a search learns
+	 * is kept, so solving the same or a nearby position again, with a larger
+	 * budget, carries on where it stopped.
+	 *
+	 * @param game		the position; not modified
+	 * @param seconds	time budget, or 0 for none
+	 * @param maxNodes	node budget, or 0 for none
+	 * @return			WIN or LOSS for the player to move, or UNKNOWN if the
+	 * 					budget ran out first
+	 */
+	public int solve(Board game, double seconds, long maxNodes) {
+		this.nodes = 0;
+		this.maxNodes = maxNodes > 0 ? maxNodes : Long.MAX_VALUE;
+		this.time = null;
+		if (seconds > 0) {
+			this.time = new TimeManager(seconds);
+			this.time.startMove(game);
+		}
+		this.aborted = false;
+		this.bestMove = Moves.NONE;
+		this.result = null;
+
+		Board board = new Board(game);
+		long entry = ProofNumberTable.MISS;
+		try {
+			entry = this.mid(board, 0, INFINITY, INFINITY);
+		} catch (SearchAbortedException e) {
+			this.aborted = true;
+		}
+		if (entry != ProofNumberTable.MISS && ProofNumberTable.proofOf(entry) == 0) {
+			if (this.bestMove != Moves.NONE) {
+				this.result = board.toMove(this.bestMove);
+			}
+			return WIN;
+		} else if (entry != ProofNumberTable.MISS && ProofNumberTable.disproofOf(entry) == 0) {
+			return LOSS;
+		}
+		return UNKNOWN;
+	}
+
+	/**
+	 * Get the move that wins the position of the last solve
+	 *
+	 * @return	the winning move, or null if the position was not found won
+	 */
+	public Move getBestMove() {
+		return this.result;
+	}
+
+	/**
+	 * Get the number of nodes the last solve searched
+	 *
+	 * @return	the number of nodes
+	 */
+	public long getNodes() {
+		return this.nodes;
+	}
+
+	/**
+	 * Whether the last solve ran out of budget before it solved the position
+	 *
+	 * @return	true if the budget ran out
+	 */
+	public boolean isAborted() {
+		return this.aborted;
+	}
+
+	/**
+	 * Subfunction of solve: search a position until its proof number reaches
+	 * one threshold or its disproof number the other, and store its numbers
+	 *
+	 * @param board			the position; put back as it was before returning
+	 * @param ply			distance from the root
+	 * @param maxProof		threshold of the proof number
+	 * @param maxDisproof	threshold of the disproof number
+	 * @return				the packed proof and disproof numbers of the position
+	 * @throws SearchAbortedException	if the budget ran out
+	 */
+	private long mid(Board board, int ply, int maxProof, int maxDisproof) {
+		if (++this.nodes >= this.maxNodes
+				|| (this.nodes & (TimeManager.POLL_INTERVAL - 1)) == 0 && this.time != null && this.time.isTimeUp()) {
+			throw new SearchAbortedException();
+		}
+		long key = board.getHash();
+		long startNodes = this.nodes;
+
+		int solved = ply > 0 ? this.probeSolvers(board) : UNKNOWN;
+		int count = solved == UNKNOWN ? this.stack.generate(board, ply) : 0;
+		if (solved == WIN) {
+			this.table.store(key, 0, INFINITY, 1);
+			return ProofNumberTable.pack(0, INFINITY);
+		} else if (count == 0) {
+			/* the player to move has no moves left, or the solvers say the position is lost */
+			this.table.store(key, INFINITY, 0, 1);
+			return ProofNumberTable.pack(INFINITY, 0);
+		}
+
+		int[] moves = this.stack.getMoves();
+		int offset = this.stack.offset(ply);
+		long[] keys = this.childKeys[ply];
+		Undo undo = this.stack.undo(ply);
+		for (int i = 0; i < count; i++) {
+			board.makeMove(moves[offset + i], undo);
+			keys[i] = board.getHash();
+			board.unmakeMove(undo);
+		}
+
+		int proof;
+		int disproof;
+		int best;
+		while (true) {
+			/* the proof number is the least disproof number of a child, the
+			 * disproof number the sum of the proof numbers of the children */
+			proof = INFINITY;
+			disproof = 0;
+			best = 0;
+			int secondProof = INFINITY;
+			int bestChildProof = 1;
+			for (int i = 0; i < count; i++) {
+				long entry = this.table.probe(keys[i]);
+				int childProof = entry == ProofNumberTable.MISS ? 1 : ProofNumberTable.proofOf(entry);
+				int childDisproof = entry == ProofNumberTable.MISS ? 1 : ProofNumberTable.disproofOf(entry);
+				if (childProof == INFINITY || disproof == INFINITY) {
+					disproof = INFINITY;
+				} else {
+					disproof = Math.min(disproof + childProof, INFINITY - 1);
+				}
+				if (childDisproof < proof) {
+					secondProof = proof;
+					proof = childDisproof;
+					best = i;
+					bestChildProof = childProof;
+				} else if (childDisproof < secondProof) {
+					secondProof = childDisproof;
+				}
+			}
+			if (proof >= maxProof || disproof >= maxDisproof) {
+				break;
+			}
+
+			int childMaxProof = (int) Math.min((long) maxDisproof - disproof + bestChildProof, INFINITY);
+			int childMaxDisproof = Math.min(maxProof, secondProof + 1 + secondProof / 4);
+			board.makeMove(moves[offset + best], undo);
+			this.mid(board, ply + 1, childMaxProof, childMaxDisproof);
+			board.unmakeMove(undo);
+		}
+
+		if (ply == 0 && proof == 0) {
+			this.bestMove = moves[offset + best];
+		}
+		this.table.store(key, proof, disproof, this.nodes - startNodes + 1);
+		return ProofNumberTable.pack(proof, disproof);
+	}
+
+	/**
+	 * Subfunction of mid: look a position up in the tablebase and the
+	 * decomposition solver
+	 *
+	 * @param board	the position
+	 * @return		WIN, LOSS or UNKNOWN for the player to move
+	 */
+	private int probeSolvers(Board board) {
+		int solved = UNKNOWN;
+		if (this.tablebase != null) {
+			solved = this.tablebase.probe(board);
+		}
+		if (solved == UNKNOWN && this.decomposition != null) {
+			solved = this.decomposition.probe(board);
+		}
+		return solved;
+	}
+
+}
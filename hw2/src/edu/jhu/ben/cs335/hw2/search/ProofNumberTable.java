@@ -0,0 +1,136 @@
+package edu.jhu.ben.cs335.hw2.search;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size table of proof and disproof numbers keyed by the Zobrist key of
+ * a position, for ProofNumberSearch.
+ *
+ * Entries live in buckets of two slots. A new position takes an empty slot,
+ * or else the slot whose position took less work to reach its numbers, so
+ * that the results of large subtrees, such as positions already solved near
+ * the root, stay in the table however long the search runs. Each entry is a
+ * key, one packed long holding the proof and disproof numbers, and the
+ * work. A table belongs to one search.
+ *
+ * @author Zhihao Cao
+ */
+public class ProofNumberTable {
+
+	/**
+	 * proof or disproof number of a position that is lost or won, and the
+	 * largest number stored
+	 */
+	public static final int INFINITY = 1 << 30;
+
+	/**
+	 * returned by probe when the position is not in the table
+	 */
+	public static final long MISS = 0L;
+
+	/**
+	 * bytes used per slot: one key, one packed long and the work
+	 */
+	private static final int SLOT_BYTES = 24;
+
+	// layout of a packed entry, from the low bits up
+	private static final int DISPROOF_SHIFT = 31;
+	private static final long NUMBER_MASK = 0x7FFFFFFFL;
+	private static final long VALID = 1L << 63;
+
+	private final long[] keys;
+	private final long[] entries;
+	private final long[] works;
+	private final int bucketMask;
+
+	/**
+	 * Create a table that uses at most the given amount of memory
+	 *
+	 * @param megabytes	memory budget; rounded down to a power-of-two number of buckets
+	 */
+	public ProofNumberTable(int megabytes) {
+		long slots = Math.max(2, ((long) megabytes << 20) / SLOT_BYTES);
+		int buckets = Integer.highestOneBit((int) Math.min(slots / 2, 1 << 28));
+		this.keys = new long[buckets * 2];
+		this.entries = new long[buckets * 2];
+		this.works = new long[buckets * 2];
+		this.bucketMask = buckets - 1;
+	}
+
+	/**
+	 * Remove every entry
+	 */
+	public void clear() {
+		Arrays.fill(this.keys, 0L);
+		Arrays.fill(this.entries, 0L);
+		Arrays.fill(this.works, 0L);
+	}
+
+	/**
+	 * Look up a position
+	 *
+	 * @param key	Zobrist key of the position
+	 * @return		the packed proof and disproof numbers, or MISS
+	 */
+	public long probe(long key) {
+		int slot = this.find(key);
+		return slot < 0 ? MISS : this.entries[slot];
+	}
+
+	/**
+	 * Store the numbers of a position
+	 *
+	 * @param key		Zobrist key of the position
+	 * @param proof		the proof number, at most INFINITY
+	 * @param disproof	the disproof number, at most INFINITY
+	 * @param work		nodes searched to reach the numbers
+	 */
+	public void store(long key, int proof, int disproof, long work) {
+		int slot = ((int) key & this.bucketMask) << 1;
+		if (this.entries[slot] != MISS && this.keys[slot] != key
+				&& (this.entries[slot + 1] == MISS || this.keys[slot + 1] == key
+						|| this.works[slot + 1] < this.works[slot])) {
+			slot++;
+		}
+		this.keys[slot] = key;
+		this.entries[slot] = pack(proof, disproof);
+		this.works[slot] = work;
+	}
+
+	/**
+	 * pack a proof and a disproof number into an entry
+	 */
+	public static long pack(int proof, int disproof) {
+		return VALID | ((long) disproof << DISPROOF_SHIFT) | proof;
+	}
+
+	/**
+	 * get the proof number of a packed entry
+	 */
+	public static int proofOf(long entry) {
+		return (int) (entry & NUMBER_MASK);
+	}
+
+	/**
+	 * get the disproof number of a packed entry
+	 */
+	public static int disproofOf(long entry) {
+		return (int) ((entry >>> DISPROOF_SHIFT) & NUMBER_MASK);
+	}
+
+	/**
+	 * Subfunction of probe: the slot holding a position
+	 *
+	 * @param key	Zobrist key of the position
+	 * @return		the slot, or -1 if the position is not in the table
+	 */
+	private int find(long key) {
+		int slot = ((int) key & this.bucketMask) << 1;
+		for (int i = slot; i < slot + 2; i++) {
+			if (this.entries[i] != MISS && this.keys[i] == key) {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,18 @@
+package edu.jhu.ben.cs335.hw2.search;
+
+/** Exception thrown from deep inside a search to abandon it, when its time
+ * is up or it was told to stop; whoever started the search catches it and
+ * falls back on the last result that was completed
+ *
+ * @author Zhihao Cao
+ */
+public class SearchAbortedException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public SearchAbortedException() {
+		/* thrown to unwind, never reported, so skip the stack trace */
+		super(null, null, false, false);
+	}
+
+}
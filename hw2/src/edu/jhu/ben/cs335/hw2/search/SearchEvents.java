@@ -0,0 +1,138 @@
+package edu.jhu.ben.cs335.hw2.search;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Percentage;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JDK Flight Recorder events for search statistics, one per finished
+ * iteration and one per move. They cost next to nothing unless a recording
+ * has them enabled, e.g. java -XX:StartFlightRecording ...
+ *
+ * @author Zhihao Cao
+ */
+final class SearchEvents {
+
+	private SearchEvents() {
+	}
+
+	/**
+	 * Load both event classes without committing either
+	 */
+	static void load() {
+		new Iteration();
+		new Move();
+	}
+
+	/**
+	 * Record the statistics of a finished iteration
+	 *
+	 * @param stats	the counters of the iteration
+	 */
+	static void iterationFinished(SearchStats stats) {
+		Iteration event = new Iteration();
+		if (event.shouldCommit()) {
+			event.fill(stats);
+			event.commit();
+		}
+	}
+
+	/**
+	 * Record the statistics of a move
+	 *
+	 * @param stats	the counters of the move
+	 */
+	static void moveFinished(SearchStats stats) {
+		Move event = new Move();
+		if (event.shouldCommit()) {
+			event.fill(stats);
+			event.commit();
+		}
+	}
+
+	/**
+	 * Fields shared by both events
+	 */
+	@Category({ "Konane", "Search" })
+	@StackTrace(false)
+	abstract static class Statistics extends Event {
+
+		@Label("Depth")
+		int depth;
+
+		@Label("Selective Depth")
+		@Description("Deepest node reached")
+		int selectiveDepth;
+
+		@Label("Nodes")
+		long nodes;
+
+		@Label("Leaf Evaluations")
+		long leafEvaluations;
+
+		@Label("Cutoff Rate")
+		@Percentage
+		double cutoffRate;
+
+		@Label("First-Move Cutoff Rate")
+		@Percentage
+		double firstMoveCutoffRate;
+
+		@Label("Effective Branching Factor")
+		double branchingFactor;
+
+		@Label("Table Hit Rate")
+		@Percentage
+		double tableHitRate;
+
+		@Label("Nodes per Second")
+		long nodesPerSecond;
+
+		@Label("Search Time")
+		@Timespan(Timespan.NANOSECONDS)
+		long searchTime;
+
+		@Label("Allocated")
+		@DataAmount
+		long allocated;
+
+		/**
+		 * Copy the statistics into the event
+		 *
+		 * @param stats	the statistics
+		 */
+		void fill(SearchStats stats) {
+			this.depth = stats.getDepth();
+			this.selectiveDepth = stats.getMaximumDepthReached();
+			this.nodes = stats.getNodes();
+			this.leafEvaluations = stats.getLeafEvaluations();
+			this.cutoffRate = stats.getCutoffRate();
+			this.firstMoveCutoffRate = stats.getFirstMoveCutoffRate();
+			this.branchingFactor = stats.getEffectiveBranchingFactor();
+			this.tableHitRate = stats.getTableHitRate();
+			this.nodesPerSecond = stats.getNodesPerSecond();
+			this.searchTime = stats.nanos;
+			this.allocated = stats.getAllocatedBytes();
+		}
+
+	}
+
+	@Name("edu.jhu.ben.cs335.hw2.SearchIteration")
+	@Label("Search Iteration")
+	@Description("One finished iteration of an alpha-beta search")
+	static class Iteration extends Statistics {
+	}
+
+	@Name("edu.jhu.ben.cs335.hw2.SearchMove")
+	@Label("Search Move")
+	@Description("Every iteration a player searched for one move")
+	static class Move extends Statistics {
+	}
+
+}
@@ -0,0 +1,28 @@
+package edu.jhu.ben.cs335.hw2.search;
+
+/**
+ * Receives the statistics of a search as it goes, instead of reading them
+ * off the console. Methods are called on the thread that searched, and the
+ * statistics passed are only valid during the call.
+ *
+ * @author Zhihao Cao
+ */
+public interface SearchListener {
+
+	/**
+	 * Called after each iteration of iterative deepening that finished, or
+	 * after a fixed-depth search
+	 *
+	 * @param stats	the counters of the iteration
+	 */
+	void iterationFinished(SearchStats stats);
+
+	/**
+	 * Called once a player has decided on a move by searching
+	 *
+	 * @param stats	the counters of every iteration searched for the move,
+	 * 				helper threads included
+	 */
+	void moveFinished(SearchStats stats);
+
+}
@@ -0,0 +1,211 @@
+package edu.jhu.ben.cs335.hw2.search;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Counters of one search iteration, or of all the iterations of a move.
+ *
+ * AlphaBetaSearch counts in fields of its own while it searches, and fills
+ * one of these in at the end of every iteration, so counting costs the
+ * search no more than the node counter always did. Everything else is
+ * worked out from the counters.
+ *
+ * @author Zhihao Cao
+ */
+public class SearchStats {
+
+	/**
+	 * the JVM's thread counters, if it measures what each thread allocates
+	 */
+	private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+	int depth;
+	int maximumDepthReached;
+	long nodes;
+	long leafEvaluations;
+	long expandedNodes;
+	long betaCutoffs;
+	long firstMoveCutoffs;
+	long tableProbes;
+	long tableHits;
+	long nanos;
+	long allocatedBytes;
+
+	/**
+	 * Set every counter back to zero
+	 */
+	public void reset() {
+		this.depth = 0;
+		this.maximumDepthReached = 0;
+		this.nodes = 0;
+		this.leafEvaluations = 0;
+		this.expandedNodes = 0;
+		this.betaCutoffs = 0;
+		this.firstMoveCutoffs = 0;
+		this.tableProbes = 0;
+		this.tableHits = 0;
+		this.nanos = 0;
+		this.allocatedBytes = 0;
+	}
+
+	/**
+	 * Add the counters of another search, such as a helper thread's, to these;
+	 * depths are the greater of the two, and time is not added, since the
+	 * searches ran side by side
+	 *
+	 * @param other	the other search's counters
+	 */
+	public void add(SearchStats other) {
+		this.depth = Math.max(this.depth, other.depth);
+		this.maximumDepthReached = Math.max(this.maximumDepthReached, other.maximumDepthReached);
+		this.nodes += other.nodes;
+		this.leafEvaluations += other.leafEvaluations;
+		this.expandedNodes += other.expandedNodes;
+		this.betaCutoffs += other.betaCutoffs;
+		this.firstMoveCutoffs += other.firstMoveCutoffs;
+		this.tableProbes += other.tableProbes;
+		this.tableHits += other.tableHits;
+		this.nanos = Math.max(this.nanos, other.nanos);
+		this.allocatedBytes += other.allocatedBytes;
+	}
+
+	/**
+	 * Get the depth bound of the search; for a move, the depth of the
+	 * deepest iteration that finished
+	 *
+	 * @return	the depth bound
+	 */
+	public int getDepth() {
+		return this.depth;
+	}
+
+	/**
+	 * Get the deepest node reached
+	 *
+	 * @return	the maximum depth reached
+	 */
+	public int getMaximumDepthReached() {
+		return this.maximumDepthReached;
+	}
+
+	/**
+	 * Get the number of nodes visited
+	 *
+	 * @return	the number of nodes
+	 */
+	public long getNodes() {
+		return this.nodes;
+	}
+
+	/**
+	 * Get the number of times the evaluation function was called
+	 *
+	 * @return	the number of leaf evaluations
+	 */
+	public long getLeafEvaluations() {
+		return this.leafEvaluations;
+	}
+
+	/**
+	 * Get the share of searched nodes with moves that were cut off before
+	 * all their moves were searched
+	 *
+	 * @return	the beta-cutoff rate, from 0 to 1
+	 */
+	public double getCutoffRate() {
+		return this.expandedNodes == 0 ? 0 : (double) this.betaCutoffs / this.expandedNodes;
+	}
+
+	/**
+	 * Get the share of cutoffs caused by the first move searched, a measure
+	 * of how good move ordering is
+	 *
+	 * @return	the first-move cutoff rate, from 0 to 1
+	 */
+	public double getFirstMoveCutoffRate() {
+		return this.betaCutoffs == 0 ? 0 : (double) this.firstMoveCutoffs / this.betaCutoffs;
+	}
+
+	/**
+	 * Get the effective branching factor: the number of moves per node a
+	 * tree of uniform width would need to hold as many nodes in as many plies
+	 *
+	 * @return	the depth-th root of the number of nodes
+	 */
+	public double getEffectiveBranchingFactor() {
+		return this.depth == 0 || this.nodes == 0 ? 0 : Math.pow(this.nodes, 1.0 / this.depth);
+	}
+
+	/**
+	 * Get the share of transposition table probes that found the position
+	 *
+	 * @return	the hit rate, from 0 to 1
+	 */
+	public double getTableHitRate() {
+		return this.tableProbes == 0 ? 0 : (double) this.tableHits / this.tableProbes;
+	}
+
+	/**
+	 * Get the time spent searching
+	 *
+	 * @return	the time in seconds
+	 */
+	public double getSeconds() {
+		return this.nanos / 1e9;
+	}
+
+	/**
+	 * Get the number of nodes visited per second
+	 *
+	 * @return	the nodes per second
+	 */
+	public long getNodesPerSecond() {
+		return this.nanos == 0 ? 0 : (long) (this.nodes * 1e9 / this.nanos);
+	}
+
+	/**
+	 * Get the memory allocated by the searching threads while they searched
+	 *
+	 * @return	the number of bytes, or 0 if the JVM does not measure it
+	 */
+	public long getAllocatedBytes() {
+		return this.allocatedBytes;
+	}
+
+	/**
+	 * Get the memory the current thread has allocated since it started
+	 *
+	 * @return	the number of bytes, or 0 if the JVM does not measure it
+	 */
+	static long allocatedBytes() {
+		return THREADS == null ? 0 : THREADS.getCurrentThreadAllocatedBytes();
+	}
+
+	/**
+	 * Subfunction of allocatedBytes: find the JVM's thread counters
+	 *
+	 * @return	the counters, or null if they do not measure allocation
+	 */
+	private static com.sun.management.ThreadMXBean threads() {
+		java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (threads instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean counters = (com.sun.management.ThreadMXBean) threads;
+			if (counters.isThreadAllocatedMemorySupported() && counters.isThreadAllocatedMemoryEnabled()) {
+				return counters;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public String toString() {
+		return "depth " + this.depth + ", selective depth " + this.maximumDepthReached + ", nodes " + this.nodes
+				+ ", leaf evaluations " + this.leafEvaluations
+				+ ", cutoff rate " + String.format("%.3f", this.getCutoffRate())
+				+ ", first-move cutoff rate " + String.format("%.3f", this.getFirstMoveCutoffRate())
+				+ ", branching factor " + String.format("%.2f", this.getEffectiveBranchingFactor())
+				+ ", table hit rate " + String.format("%.3f", this.getTableHitRate())
+				+ ", nodes/second " + this.getNodesPerSecond() + ", allocated bytes " + this.allocatedBytes;
+	}
+
+}
@@ -0,0 +1,130 @@
+package edu.jhu.ben.cs335.hw2.search;
+
+import edu.jhu.ben.cs335.hw2.board.Board;
+import edu.jhu.ben.cs335.hw2.board.Chip;
+
+/**
+ * Decides how long a player may think about each move.
+ *
+ * Every move gets a hard deadline, after which searches are aborted, and a
+ * soft one, after which no new iteration is started. With only a per-move
+ * limit both are the limit. With a budget for the whole game, each move gets
+ * an equal share of what is left over the moves the player can still expect
+ * to make, and stops starting iterations halfway through its share; whatever
+ * a move does not use goes back to the budget.
+ *
+ * Searches poll isTimeUp() every POLL_INTERVAL nodes rather than at every node.
+ *
+ * @author Zhihao Cao
+ */
+public class TimeManager {
+
+	/**
+	 * number of nodes searched between two looks at the clock; a power of two
+	 */
+	public static final int POLL_INTERVAL = 1024;
+
+	/**
+	 * fewest moves a game budget is shared over, so the last moves of a game
+	 * never get all of it
+	 */
+	private static final int MIN_MOVES_TO_GO = 4;
+
+	/**
+	 * value of gameTime when there is no game budget
+	 */
+	private static final double NO_GAME_TIME = -1;
+
+	private double moveTime;
+	private double gameTime;
+	private long start;
+	private long softDeadline;
+	private long hardDeadline;
+
+	/**
+	 * Create a TimeManager with a per-move limit and no game budget
+	 *
+	 * @param moveTime	time limit for a move, in seconds
+	 */
+	public TimeManager(double moveTime) {
+		this.moveTime = moveTime;
+		this.gameTime = NO_GAME_TIME;
+	}
+
+	/**
+	 * Set a budget for all the moves left in the game; moves are still held
+	 * to the per-move limit
+	 *
+	 * @param seconds	the budget in seconds, or a negative number for none
+	 */
+	public void setGameTime(double seconds) {
+		this.gameTime = seconds < 0 ? NO_GAME_TIME : seconds;
+	}
+
+	/**
+	 * Start the clock for a move and set its deadlines
+	 *
+	 * @param game	the current game state
+	 */
+	public void startMove(Board game) {
+		this.start = System.nanoTime();
+		double budget = this.moveTime;
+		double soft = budget;
+		if (this.gameTime != NO_GAME_TIME) {
+			budget = Math.min(budget, this.gameTime / movesToGo(game));
+			soft = budget / 2;
+		}
+		this.hardDeadline = this.start + (long) (budget * 1e9);
+		this.softDeadline = this.start + (long) (soft * 1e9);
+	}
+
+	/**
+	 * Stop the clock for a move, taking the time used out of the game budget
+	 */
+	public void endMove() {
+		if (this.gameTime != NO_GAME_TIME) {
+			this.gameTime = Math.max(0, this.gameTime - this.getElapsed());
+		}
+	}
+
+	/**
+	 * Whether the hard deadline of the current move has passed
+	 *
+	 * @return	true if searches have to stop
+	 */
+	public boolean isTimeUp() {
+		return System.nanoTime() - this.hardDeadline > 0;
+	}
+
+	/**
+	 * Whether there is time to start another iteration of a search
+	 *
+	 * @return	true if the soft deadline of the current move has not passed
+	 */
+	public boolean canStartIteration() {
+		return System.nanoTime() - this.softDeadline < 0;
+	}
+
+	/**
+	 * Get the time spent on the current move so far
+	 *
+	 * @return	the time in seconds
+	 */
+	public double getElapsed() {
+		return (System.nanoTime() - this.start) / 1e9;
+	}
+
+	/**
+	 * Estimate how many more moves the player to move will make: both players
+	 * take at least one chip a move, and games rarely run until more than
+	 * two thirds of the chips are gone
+	 *
+	 * @param game	the current game state
+	 * @return		the estimated number of moves
+	 */
+	private static int movesToGo(Board game) {
+		int chips = game.getSize() * game.getSize() - game.countChips(Chip.NONE);
+		return Math.max(MIN_MOVES_TO_GO, chips / 3);
+	}
+
+}
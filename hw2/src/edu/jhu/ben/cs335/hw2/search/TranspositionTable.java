@@ -0,0 +1,177 @@
+package edu.jhu.ben.cs335.hw2.search;
+
+import java.util.Arrays;
+
+import edu.jhu.ben.cs335.hw2.board.Moves;
+
+/**
+ * Fixed-size table of search results keyed by the Zobrist key of a position.
+ *
+ * Entries live in buckets of two slots: the first slot keeps the deepest
+ * result seen for the bucket (unless it is left over from an earlier search),
+ * the second slot is always replaced. Each entry is a key and one packed long
+ * holding the score, bound type, search depth, best move and search generation.
+ *
+ * Several search threads may use one table without locking. A slot's key is
+ * stored xor-ed with its entry, so a slot that is half overwritten by another
+ * thread while being read no longer matches any key and reads as a miss.
+ *
+ * @author Zhihao Cao
+ */
+public class TranspositionTable {
+
+	/**
+	 * bound types: the stored score is exact, at least the true score, or at most the true score
+	 */
+	public static final int EXACT = 0;
+	public static final int LOWER_BOUND = 1;
+	public static final int UPPER_BOUND = 2;
+
+	/**
+	 * returned by probe when the position is not in the table
+	 */
+	public static final long MISS = 0L;
+
+	/**
+	 * depth stored for game-over positions, whose score is exact at any depth
+	 */
+	public static final int TERMINAL_DEPTH = 0xFF;
+
+	/**
+	 * move stored when a result has no best move
+	 */
+	public static final int NO_MOVE = Moves.NONE;
+
+	/**
+	 * bytes used per slot: one key and one packed entry
+	 */
+	private static final int SLOT_BYTES = 16;
+
+	// layout of a packed entry, from the low bits up
+	private static final int MOVE_SHIFT = 32;
+	private static final int DEPTH_SHIFT = 48;
+	private static final int BOUND_SHIFT = 56;
+	private static final int GENERATION_SHIFT = 58;
+	private static final int GENERATION_MASK = 0x1F;
+	private static final long VALID = 1L << 63;
+
+	private final long[] keys;
+	private final long[] entries;
+	private final int bucketMask;
+	private int generation;
+
+	/**
+	 * Create a table that uses at most the given amount of memory
+	 *
+	 * @param megabytes	memory budget; rounded down to a power-of-two number of buckets
+	 */
+	public TranspositionTable(int megabytes) {
+		long slots = Math.max(2, ((long) megabytes << 20) / SLOT_BYTES);
+		int buckets = Integer.highestOneBit((int) Math.min(slots / 2, 1 << 28));
+		this.keys = new long[buckets * 2];
+		this.entries = new long[buckets * 2];
+		this.bucketMask = buckets - 1;
+		this.generation = 0;
+	}
+
+	/**
+	 * Start a new search; entries from earlier searches become the first to be replaced
+	 */
+	public void newSearch() {
+		this.generation = (this.generation + 1) & GENERATION_MASK;
+	}
+
+	/**
+	 * Remove every entry
+	 */
+	public void clear() {
+		Arrays.fill(this.keys, 0L);
+		Arrays.fill(this.entries, 0L);
+	}
+
+	/**
+	 * Look up a position
+	 *
+	 * @param key	Zobrist key of the position
+	 * @return		the packed entry, or MISS
+	 */
+	public long probe(long key) {
+		int slot = ((int) key & this.bucketMask) << 1;
+		for (int i = slot; i < slot + 2; i++) {
+			long entry = this.entries[i];
+			if (entry != MISS && (this.keys[i] ^ entry) == key) {
+				return entry;
+			}
+		}
+		return MISS;
+	}
+
+	/**
+	 * Store a search result
+	 *
+	 * @param key	Zobrist key of the position
+	 * @param depth	remaining search depth the score was computed with
+	 * @param bound	EXACT, LOWER_BOUND or UPPER_BOUND
+	 * @param score	the score
+	 * @param move	best move found, packed as by Moves.pack, or NO_MOVE
+	 */
+	public void store(long key, int depth, int bound, int score, int move) {
+		int slot = ((int) key & this.bucketMask) << 1;
+		long entry = VALID
+				| ((long) this.generation << GENERATION_SHIFT)
+				| ((long) bound << BOUND_SHIFT)
+				| ((long) Math.min(depth, TERMINAL_DEPTH) << DEPTH_SHIFT)
+				| ((long) move << MOVE_SHIFT)
+				| (score & 0xFFFFFFFFL);
+
+		long old = this.entries[slot];
+		boolean samePosition = (this.keys[slot] ^ old) == key;
+		boolean replaceDeep = old == MISS
+				|| samePosition
+				|| generationOf(old) != this.generation
+				|| depth >= depthOf(old);
+		if (replaceDeep) {
+			/* keep a same-position result's best move if this one has none */
+			if (move == NO_MOVE && samePosition) {
+				entry |= old & (0xFFFFL << MOVE_SHIFT);
+			}
+			this.keys[slot] = key ^ entry;
+			this.entries[slot] = entry;
+		} else {
+			this.keys[slot + 1] = key ^ entry;
+			this.entries[slot + 1] = entry;
+		}
+	}
+
+	/**
+	 * get the score of a packed entry
+	 */
+	public static int scoreOf(long entry) {
+		return (int) entry;
+	}
+
+	/**
+	 * get the search depth of a packed entry
+	 */
+	public static int depthOf(long entry) {
+		return (int) (entry >>> DEPTH_SHIFT) & 0xFF;
+	}
+
+	/**
+	 * get the bound type of a packed entry
+	 */
+	public static int boundOf(long entry) {
+		return (int) (entry >>> BOUND_SHIFT) & 0x3;
+	}
+
+	/**
+	 * get the best move of a packed entry, or NO_MOVE
+	 */
+	public static int moveOf(long entry) {
+		return (int) (entry >>> MOVE_SHIFT) & 0xFFFF;
+	}
+
+	private static int generationOf(long entry) {
+		return (int) (entry >>> GENERATION_SHIFT) & GENERATION_MASK;
+	}
+}
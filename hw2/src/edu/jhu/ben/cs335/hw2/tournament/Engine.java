@@ -0,0 +1,162 @@
+package edu.jhu.ben.cs335.hw2.tournament;
+
+import java.util.HashMap;
+
+import edu.jhu.ben.cs335.hw2.board.Chip;
+import edu.jhu.ben.cs335.hw2.book.OpeningBook;
+import edu.jhu.ben.cs335.hw2.endgame.DecompositionSolver;
+import edu.jhu.ben.cs335.hw2.endgame.Tablebase;
+import edu.jhu.ben.cs335.hw2.players.AlphaBetaPlayer;
+import edu.jhu.ben.cs335.hw2.players.MinimaxPlayer;
+import edu.jhu.ben.cs335.hw2.players.MonteCarloTreeSearchPlayer;
+import edu.jhu.ben.cs335.hw2.players.Player;
+import edu.jhu.ben.cs335.hw2.players.SearchPlayer;
+import edu.jhu.ben.cs335.hw2.players.TimeBoundedIterativeDeepeningAlphaBetaPlayer;
+import edu.jhu.ben.cs335.hw2.players.TimeBoundedIterativeDeepeningMiniMaxPlayer;
+
+/**
+ * An engine taking part in a tournament: a player type and its settings,
+ * from which a fresh player is made for every game.
+ *
+ * An engine is written as its type followed by key=value settings, e.g.
+ * "alphabeta-timed time=0.1 threads=2 book=1". Types and their settings:
+ * minimax (depth), minimax-timed (time, gametime), alphabeta (depth,
+ * ordering, table, threads, ponder, mtdf, lmr, nullmove, book, tablebase,
+ * cgt), alphabeta-timed (time, gametime and those of alphabeta but depth)
+ * and mcts (time, gametime, threads). Times are in seconds; table is in
+ * megabytes; flags are 0 or 1.
+ *
+ * @author Zhihao Cao
+ */
+public class Engine {
+
+	private String name;
+	private String type;
+	private HashMap<String, String> settings;
+
+	/**
+	 * Create an Engine from its written form
+	 *
+	 * @param name	name the engine is reported under
+	 * @param spec	type and settings of the engine
+	 * @throws IllegalArgumentException	if the type or a setting is malformed
+	 */
+	public Engine(String name, String spec) throws IllegalArgumentException {
+		String[] words = spec.trim().split("\\s+");
+		this.name = name;
+		this.type = words[0];
+		this.settings = new HashMap<String, String>();
+		for (int i = 1; i < words.length; i++) {
+			int equals = words[i].indexOf('=');
+			if (equals <= 0) {
+				throw new IllegalArgumentException("bad setting \"" + words[i] + "\" for engine " + name);
+			}
+			this.settings.put(words[i].substring(0, equals), words[i].substring(equals + 1));
+		}
+		/* fail now rather than in the middle of a match */
+		this.createPlayer(Chip.BLACK, null, null, null).shutdown();
+	}
+
+	/**
+	 * Make a player for one game
+	 *
+	 * @param color		the color the player plays
+	 * @param book		opening book for the board size, or null
+	 * @param tablebase	endgame tablebase for the board size, or null
+	 * @param decomposition	decomposition endgame solver for the board size, or null
+	 * @return			a new player
+	 * @throws IllegalArgumentException	if the type is unknown
+	 */
+	public Player createPlayer(Chip color, OpeningBook book, Tablebase tablebase, DecompositionSolver decomposition)
+			throws IllegalArgumentException {
+		boolean ordering = this.getFlag("ordering", true);
+		if (this.type.equals("minimax")) {
+			return new MinimaxPlayer(color, this.getInt("depth", 4));
+		} else if (this.type.equals("minimax-timed")) {
+			TimeBoundedIterativeDeepeningMiniMaxPlayer player = new TimeBoundedIterativeDeepeningMiniMaxPlayer(color, this.getDouble("time", 1));
+			player.setGameTime(this.getDouble("gametime", -1));
+			return player;
+		} else if (this.type.equals("alphabeta")) {
+			AlphaBetaPlayer player = new AlphaBetaPlayer(color, this.getInt("depth", 6), ordering);
+			this.configure(player, book, tablebase, decomposition);
+			return player;
+		} else if (this.type.equals("alphabeta-timed")) {
+			TimeBoundedIterativeDeepeningAlphaBetaPlayer player = new TimeBoundedIterativeDeepeningAlphaBetaPlayer(color, this.getDouble("time", 1), ordering);
+			player.setGameTime(this.getDouble("gametime", -1));
+			this.configure(player, book, tablebase, decomposition);
+			return player;
+		} else if (this.type.equals("mcts")) {
+			MonteCarloTreeSearchPlayer player = new MonteCarloTreeSearchPlayer(color, this.getDouble("time", 1));
+			player.setGameTime(this.getDouble("gametime", -1));
+			player.setThreads(this.getInt("threads", 1));
+			return player;
+		}
+		throw new IllegalArgumentException("unknown player type \"" + this.type + "\" for engine " + this.name);
+	}
+
+	/**
+	 * Subfunction of createPlayer: apply the settings the alpha-beta types share
+	 *
+	 * @param player		the player to set up
+	 * @param book			opening book for the board size, or null
+	 * @param tablebase		endgame tablebase for the board size, or null
+	 * @param decomposition	decomposition endgame solver for the board size, or null
+	 */
+	private void configure(SearchPlayer player, OpeningBook book, Tablebase tablebase, DecompositionSolver decomposition) {
+		player.setTranspositionTableSize(this.getInt("table", SearchPlayer.DEFAULT_TABLE_MEGABYTES));
+		player.setThreads(this.getInt("threads", 1));
+		player.setPondering(this.getFlag("ponder", false));
+		player.setMtdf(this.getFlag("mtdf", false));
+		player.setLateMoveReductions(this.getFlag("lmr", false));
+		player.setNullMovePruning(this.getFlag("nullmove", false));
+		player.setOpeningBook(this.getFlag("book", false) ? book : null);
+		player.setTablebase(this.getFlag("tablebase", false) ? tablebase : null);
+		player.setDecompositionSolver(this.getFlag("cgt", false) ? decomposition : null);
+	}
+
+	/**
+	 * Get the name the engine is reported under
+	 *
+	 * @return	the name
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Subfunction of createPlayer: an integer setting
+	 *
+	 * @param key			the setting
+	 * @param defaultValue	value if the setting is missing
+	 * @return				the value
+	 */
+	private int getInt(String key, int defaultValue) {
+		String value = this.settings.get(key);
+		return value == null ? defaultValue : Integer.parseInt(value);
+	}
+
+	/**
+	 * Subfunction of createPlayer: a real-valued setting
+	 *
+	 * @param key			the setting
+	 * @param defaultValue	value if the setting is missing
+	 * @return				the value
+	 */
+	private double getDouble(String key, double defaultValue) {
+		String value = this.settings.get(key);
+		return value == null ? defaultValue : Double.parseDouble(value);
+	}
+
+	/**
+	 * Subfunction of createPlayer: an on/off setting
+	 *
+	 * @param key			the setting
+	 * @param defaultValue	value if the setting is missing
+	 * @return				the value
+	 */
+	private boolean getFlag(String key, boolean defaultValue) {
+		String value = this.settings.get(key);
+		return value == null ? defaultValue : !value.equals("0") && !value.equalsIgnoreCase("false");
+	}
+
+}
@@ -0,0 +1,74 @@
+package edu.jhu.ben.cs335.hw2.tournament;
+
+/**
+ * Result and statistics of one tournament game, written out as a CSV row
+ * or a JSON object on one line.
+ *
+ * @author Zhihao Cao
+ */
+public class GameRecord {
+
+	/**
+	 * column names, in the order of toCsv
+	 */
+	public static final String CSV_HEADER = "game,size,black,white,winner,turns,black_seconds,white_seconds,forfeit,opening";
+
+	int game;
+	int size;
+	String black;
+	String white;
+	String winner;
+	int turns;
+	double blackSeconds;
+	double whiteSeconds;
+	boolean forfeit;
+	String opening;
+	boolean firstWon;
+
+	/**
+	 * Write the record as a CSV row
+	 *
+	 * @return	the row, without a line break
+	 */
+	public String toCsv() {
+		return this.game + "," + this.size + "," + csv(this.black) + "," + csv(this.white) + "," + csv(this.winner)
+				+ "," + this.turns + "," + this.blackSeconds + "," + this.whiteSeconds + "," + this.forfeit
+				+ "," + csv(this.opening);
+	}
+
+	/**
+	 * Write the record as a JSON object
+	 *
+	 * @return	the object, on one line
+	 */
+	public String toJson() {
+		return "{\"game\":" + this.game + ",\"size\":" + this.size + ",\"black\":" + json(this.black)
+				+ ",\"white\":" + json(this.white) + ",\"winner\":" + json(this.winner) + ",\"turns\":" + this.turns
+				+ ",\"black_seconds\":" + this.blackSeconds + ",\"white_seconds\":" + this.whiteSeconds
+				+ ",\"forfeit\":" + this.forfeit + ",\"opening\":" + json(this.opening) + "}";
+	}
+
+	/**
+	 * Subfunction of toCsv: quote a field if it needs it
+	 *
+	 * @param field	the field
+	 * @return		the field as it goes in a row
+	 */
+	private static String csv(String field) {
+		if (field.indexOf(',') < 0 && field.indexOf('"') < 0) {
+			return field;
+		}
+		return "\"" + field.replace("\"", "\"\"") + "\"";
+	}
+
+	/**
+	 * Subfunction of toJson: a string literal
+	 *
+	 * @param field	the string
+	 * @return		the string quoted and escaped
+	 */
+	private static String json(String field) {
+		return "\"" + field.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+	}
+
+}
@@ -0,0 +1,141 @@
+package edu.jhu.ben.cs335.hw2.tournament;
+
+/**
+ * Sequential probability ratio test of one engine against another.
+ *
+ * The test weighs the hypothesis that the first engine is elo0 Elo stronger
+ * than the second (H0) against the hypothesis that it is elo1 stronger (H1),
+ * game by game, and stops as soon as the log-likelihood ratio of the results
+ * crosses a bound set by the error rates alpha (accepting H1 when H0 holds)
+ * and beta (accepting H0 when H1 holds). Konane has no draws, so each game
+ * is a win or a loss with the logistic Elo win probability.
+ *
+ * @author Zhihao Cao
+ */
+public class Sprt {
+
+	/**
+	 * states of the test
+	 */
+	public static final int H0_ACCEPTED = -1;
+	public static final int CONTINUE = 0;
+	public static final int H1_ACCEPTED = 1;
+
+	private double lowerBound;
+	private double upperBound;
+	private double winWeight;
+	private double lossWeight;
+	private int wins;
+	private int losses;
+
+	/**
+	 * Create a Sprt
+	 *
+	 * @param elo0	Elo difference under H0
+	 * @param elo1	Elo difference under H1
+	 * @param alpha	probability of accepting H1 when H0 holds
+	 * @param beta	probability of accepting H0 when H1 holds
+	 */
+	public Sprt(double elo0, double elo1, double alpha, double beta) {
+		double p0 = expectedScore(elo0);
+		double p1 = expectedScore(elo1);
+		this.winWeight = Math.log(p1 / p0);
+		this.lossWeight = Math.log((1 - p1) / (1 - p0));
+		this.lowerBound = Math.log(beta / (1 - alpha));
+		this.upperBound = Math.log((1 - beta) / alpha);
+	}
+
+	/**
+	 * Count a game
+	 *
+	 * @param won	whether the first engine won it
+	 */
+	public void add(boolean won) {
+		if (won) {
+			this.wins++;
+		} else {
+			this.losses++;
+		}
+	}
+
+	/**
+	 * Get the log-likelihood ratio of H1 to H0 over the games so far
+	 *
+	 * @return	the ratio
+	 */
+	public double getLlr() {
+		return this.wins * this.winWeight + this.losses * this.lossWeight;
+	}
+
+	/**
+	 * Get the state of the test
+	 *
+	 * @return	H0_ACCEPTED, H1_ACCEPTED, or CONTINUE if more games are needed
+	 */
+	public int getStatus() {
+		double llr = this.getLlr();
+		if (llr <= this.lowerBound) {
+			return H0_ACCEPTED;
+		} else if (llr >= this.upperBound) {
+			return H1_ACCEPTED;
+		}
+		return CONTINUE;
+	}
+
+	/**
+	 * Get the bounds the ratio is tested against
+	 *
+	 * @return	the lower and upper bound
+	 */
+	public double[] getBounds() {
+		return new double[] { this.lowerBound, this.upperBound };
+	}
+
+	/**
+	 * Get the number of games the first engine won
+	 *
+	 * @return	the number of wins
+	 */
+	public int getWins() {
+		return this.wins;
+	}
+
+	/**
+	 * Get the number of games the first engine lost
+	 *
+	 * @return	the number of losses
+	 */
+	public int getLosses() {
+		return this.losses;
+	}
+
+	/**
+	 * Estimate the Elo difference from the games so far; if either engine won
+	 * every game, the score is smoothed to (wins + 0.5) / (games + 1), so the
+	 * estimate is a finite bound rather than infinite
+	 *
+	 * @return	the estimate, or NaN before any game
+	 */
+	public double getElo() {
+		int games = this.wins + this.losses;
+		if (games == 0) {
+			return Double.NaN;
+		}
+		double score = this.wins == 0 || this.losses == 0
+				? (this.wins + 0.5) / (games + 1)
+				: (double) this.wins / games;
+		return -400 * Math.log10(1 / score - 1);
+	}
+
+	/**
+	 * Subfunction of Sprt: the expected score of an engine a given number of
+	 * Elo points stronger than its opponent
+	 *
+	 * @param elo	the Elo difference
+	 * @return		the probability of a win
+	 */
+	private static double expectedScore(double elo) {
+		return 1 / (1 + Math.pow(10, -elo / 400));
+	}
+
+}
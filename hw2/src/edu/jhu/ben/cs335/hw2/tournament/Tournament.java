@@ -0,0 +1,330 @@
+package edu.jhu.ben.cs335.hw2.tournament;
+
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import edu.jhu.ben.cs335.hw2.board.Board;
+import edu.jhu.ben.cs335.hw2.board.Chip;
+import edu.jhu.ben.cs335.hw2.board.InvalidMoveException;
+import edu.jhu.ben.cs335.hw2.board.Move;
+import edu.jhu.ben.cs335.hw2.book.OpeningBook;
+import edu.jhu.ben.cs335.hw2.endgame.DecompositionSolver;
+import edu.jhu.ben.cs335.hw2.endgame.Tablebase;
+import edu.jhu.ben.cs335.hw2.players.Player;
+
+/**
+ * Headless match between two engines, played on a thread pool.
+ *
+ * Games come in pairs that start from the same random opening, with the
+ * engines swapping colors, and cycle through the board sizes. Each game is
+ * written out as soon as it ends, as a CSV row or a JSON line, and counted
+ * in a sequential probability ratio test; once the test is decided no new
+ * games are started. Players print their usual output while thinking, so
+ * standard output is silenced for the length of the match.
+ * Usage: Tournament config.properties
+ *
+ * The configuration is a properties file with these keys:
+ * engine1, engine2	the engines, written as Engine describes (required)
+ * name1, name2		names to report them under (default: engine1, engine2)
+ * sizes			board sizes, separated by commas (default: 8)
+ * games			most games to play (default: 1000)
+ * concurrency		games played at once (default: one per processor)
+ * opening.plies	random moves played before the engines take over (default: 4)
+ * seed				seed of the random openings (default: 1)
+ * output			file to write results to (default: standard output)
+ * format			csv or json (default: csv)
+ * sprt				whether to stop once the test is decided, 0 or 1 (default: 1)
+ * sprt.elo0, sprt.elo1, sprt.alpha, sprt.beta
+ * 					hypotheses and error rates of the test, for engine1 against
+ * 					engine2 (default: 0, 20, 0.05, 0.05)
+ *
+ * @author Zhihao Cao
+ */
+public class Tournament {
+
+	private Engine first;
+	private Engine second;
+	private int[] sizes;
+	private int games;
+	private int concurrency;
+	private int openingPlies;
+	private long seed;
+	private String output;
+	private boolean json;
+	private boolean stopEarly;
+	private Sprt sprt;
+	private OpeningBook[] books;
+	private Tablebase[] tablebases;
+	private DecompositionSolver[] decompositions;
+	private AtomicBoolean stopped;
+	private PrintStream results;
+	private int played;
+	private int failed;
+
+	/**
+	 * Create a Tournament from its configuration
+	 *
+	 * @param config	the configuration
+	 * @throws IllegalArgumentException	if a setting is missing or malformed
+	 */
+	public Tournament(Properties config) throws IllegalArgumentException {
+		this.first = engine(config, 1);
+		this.second = engine(config, 2);
+		String[] sizeList = config.getProperty("sizes", "8").split(",");
+		this.sizes = new int[sizeList.length];
+		this.books = new OpeningBook[sizeList.length];
+		this.tablebases = new Tablebase[sizeList.length];
+		this.decompositions = new DecompositionSolver[sizeList.length];
+		for (int i = 0; i < sizeList.length; i++) {
+			this.sizes[i] = Integer.parseInt(sizeList[i].trim());
+			new Board(this.sizes[i]);
+			this.books[i] = OpeningBook.open(this.sizes[i]);
+			this.tablebases[i] = Tablebase.open(this.sizes[i]);
+			this.decompositions[i] = new DecompositionSolver(this.sizes[i]);
+		}
+		this.games = Integer.parseInt(config.getProperty("games", "1000"));
+		this.concurrency = Integer.parseInt(config.getProperty("concurrency",
+				Integer.toString(Runtime.getRuntime().availableProcessors())));
+		this.openingPlies = Integer.parseInt(config.getProperty("opening.plies", "4"));
+		this.seed = Long.parseLong(config.getProperty("seed", "1"));
+		this.output = config.getProperty("output");
+		this.json = config.getProperty("format", "csv").equalsIgnoreCase("json");
+		this.stopEarly = !config.getProperty("sprt", "1").equals("0");
+		this.sprt = new Sprt(Double.parseDouble(config.getProperty("sprt.elo0", "0")),
+				Double.parseDouble(config.getProperty("sprt.elo1", "20")),
+				Double.parseDouble(config.getProperty("sprt.alpha", "0.05")),
+				Double.parseDouble(config.getProperty("sprt.beta", "0.05")));
+		this.stopped = new AtomicBoolean(false);
+	}
+
+	/**
+	 * Play the match and write out every game
+	 *
+	 * @throws IOException	if the output file cannot be written
+	 */
+	public void run() throws IOException {
+		PrintStream console = System.out;
+		this.results = this.output == null ? console : new PrintStream(new FileOutputStream(this.output));
+		if (!this.json) {
+			this.results.println(GameRecord.CSV_HEADER);
+		}
+
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, this.concurrency), new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, "konane-tournament");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		long startTime = System.nanoTime();
+		try {
+			ArrayList<Future<?>> running = new ArrayList<Future<?>>();
+			for (int i = 0; i < this.games; i++) {
+				final int game = i;
+				running.add(pool.submit(new Runnable() {
+					public void run() {
+						if (!stopped.get()) {
+							record(play(game));
+						}
+					}
+				}));
+			}
+			for (int i = 0; i < running.size(); i++) {
+				try {
+					running.get(i).get();
+				} catch (ExecutionException e) {
+					/* a game that threw has no result; count it so the match does not look clean */
+					this.failed++;
+					System.err.println("Game " + i + " failed:");
+					e.getCause().printStackTrace();
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			pool.shutdown();
+			System.setOut(console);
+			if (this.results != console) {
+				this.results.close();
+			}
+		}
+
+		double[] bounds = this.sprt.getBounds();
+		String decision = "inconclusive";
+		if (this.sprt.getStatus() == Sprt.H1_ACCEPTED) {
+			decision = "H1 accepted";
+		} else if (this.sprt.getStatus() == Sprt.H0_ACCEPTED) {
+			decision = "H0 accepted";
+		}
+		System.err.println(this.first.getName() + " vs " + this.second.getName() + ": " + this.played + " games, "
+				+ (this.failed > 0 ? this.failed + " failed, " : "") + this.sprt.getWins() + " won, " + this.sprt.getLosses() + " lost, Elo " + this.formatElo());
+		System.err.println("SPRT LLR " + String.format("%.3f", this.sprt.getLlr()) + " (bounds "
+				+ String.format("%.3f", bounds[0]) + ", " + String.format("%.3f", bounds[1]) + "): " + decision);
+		System.err.println("Match took " + ((System.nanoTime() - startTime) / 1e9) + "s");
+	}
+
+	/**
+	 * Get the number of games that threw instead of finishing; they are not
+	 * written out or counted in the test
+	 *
+	 * @return	the number of failed games
+	 */
+	public int getFailedGames() {
+		return this.failed;
+	}
+
+	/**
+	 * Play one game; games 2k and 2k+1 share a board size and an opening,
+	 * and engine1 plays black in the even one
+	 *
+	 * @param game	number of the game
+	 * @return		its record
+	 */
+	private GameRecord play(int game) {
+		int pair = game / 2;
+		int sizeIndex = pair % this.sizes.length;
+		Engine blackEngine = game % 2 == 0 ? this.first : this.second;
+		Engine whiteEngine = game % 2 == 0 ? this.second : this.first;
+		Board board = new Board(this.sizes[sizeIndex]);
+
+		GameRecord record = new GameRecord();
+		record.game = game;
+		record.size = board.getSize();
+		record.black = blackEngine.getName();
+		record.white = whiteEngine.getName();
+
+		/* the opening, the same for both games of a pair */
+		Random random = new Random(this.seed * 1000003 + pair);
+		StringBuilder opening = new StringBuilder();
+		try {
+			for (int i = 0; i < this.openingPlies && board.gameWon() == Chip.NONE; i++) {
+				ArrayList<Move> moves = board.getLegalMoves();
+				Move move = moves.get(random.nextInt(moves.size()));
+				opening.append(i == 0 ? "" : " ").append(move);
+				board.executeMove(move);
+			}
+		} catch (InvalidMoveException e) {
+			throw new IllegalStateException(e);
+		}
+		record.opening = opening.toString();
+
+		Player[] players = {
+				blackEngine.createPlayer(Chip.BLACK, this.books[sizeIndex], this.tablebases[sizeIndex], this.decompositions[sizeIndex]),
+				whiteEngine.createPlayer(Chip.WHITE, this.books[sizeIndex], this.tablebases[sizeIndex], this.decompositions[sizeIndex]) };
+		double[] seconds = new double[2];
+		Chip winner = Chip.NONE;
+		try {
+			while ((winner = board.gameWon()) == Chip.NONE) {
+				int side = board.isBlackToPlay() ? 0 : 1;
+				long startTime = System.nanoTime();
+				Move move = players[side].getMove(board);
+				seconds[side] += (System.nanoTime() - startTime) / 1e9;
+				try {
+					if (move == null) {
+						throw new InvalidMoveException("no move");
+					}
+					board.executeMove(move);
+				} catch (InvalidMoveException e) {
+					/* a player that cannot come up with a legal move loses */
+					record.forfeit = true;
+					winner = side == 0 ? Chip.WHITE : Chip.BLACK;
+					break;
+				}
+			}
+		} finally {
+			players[0].shutdown();
+			players[1].shutdown();
+		}
+
+		record.winner = winner == Chip.BLACK ? record.black : record.white;
+		record.firstWon = (winner == Chip.BLACK) == (blackEngine == this.first);
+		record.turns = board.getTurn();
+		record.blackSeconds = seconds[0];
+		record.whiteSeconds = seconds[1];
+		return record;
+	}
+
+	/**
+	 * Write out a game and count it in the test
+	 *
+	 * @param record	the game
+	 */
+	private synchronized void record(GameRecord record) {
+		this.results.println(this.json ? record.toJson() : record.toCsv());
+		this.results.flush();
+		this.played++;
+		this.sprt.add(record.firstWon);
+		if (this.stopEarly && this.sprt.getStatus() != Sprt.CONTINUE) {
+			this.stopped.set(true);
+		}
+	}
+
+	/**
+	 * Format the Elo estimate for the match summary; when one engine won every
+	 * game the estimate is only a bound
+	 *
+	 * @return	the estimate, or n/a before any game
+	 */
+	private String formatElo() {
+		double elo = this.sprt.getElo();
+		if (Double.isNaN(elo)) {
+			return "n/a";
+		}
+		String bound = this.sprt.getLosses() == 0 ? ">= " : this.sprt.getWins() == 0 ? "<= " : "";
+		return bound + String.format("%.1f", elo);
+	}
+
+	/**
+	 * Subfunction of Tournament: read one of the two engines
+	 *
+	 * @param config	the configuration
+	 * @param number	1 or 2
+	 * @return			the engine
+	 * @throws IllegalArgumentException	if it is missing or malformed
+	 */
+	private static Engine engine(Properties config, int number) throws IllegalArgumentException {
+		String spec = config.getProperty("engine" + number);
+		if (spec == null || spec.trim().isEmpty()) {
+			throw new IllegalArgumentException("engine" + number + " is not configured");
+		}
+		return new Engine(config.getProperty("name" + number, "engine" + number), spec);
+	}
+
+	public static void main(String[] args) {
+		if (args.length < 1) {
+			System.err.println("usage: Tournament config.properties");
+			System.exit(1);
+		}
+		try {
+			Properties config = new Properties();
+			FileReader reader = new FileReader(args[0]);
+			try {
+				config.load(reader);
+			} finally {
+				reader.close();
+			}
+			Tournament tournament = new Tournament(config);
+			tournament.run();
+			if (tournament.getFailedGames() > 0) {
+				System.exit(1);
+			}
+		} catch (Exception e) {
+			System.err.println("Caught an exception: \n\t" + e.toString());
+			System.exit(1);
+		}
+	}
+
+}